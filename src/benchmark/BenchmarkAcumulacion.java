@@ -0,0 +1,144 @@
+package benchmark;
+
+import model.ResultadoAcumulacion;
+import model.ResultadoConciliacion;
+import model.Transaccion;
+import service.AcumulacionService;
+import service.ConciliacionService;
+import service.LimitadorTransacciones;
+import service.ReglaAcumulacion;
+import service.TransaccionService;
+import service.UsuarioService;
+import util.Validador;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mide el proceso de intereses sobre muchas cuentas mientras otro hilo
+ * sigue haciendo depósitos y retiros. El proceso se cancela a medio camino
+ * y se reanuda; al final se concilia para comprobar que cada cuenta recibió
+ * su interés una sola vez. Como referencia, mide también el método anterior
+ * (un realizarDeposito por cuenta).
+ *
+ * Uso: java -Xmx4g benchmark.BenchmarkAcumulacion [cuentas] [hilos]
+ */
+public class BenchmarkAcumulacion {
+    
+    public static void main(String[] args) throws InterruptedException {
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        BigDecimal tasaAnual = new BigDecimal("0.0425");
+        ReglaAcumulacion regla = ReglaAcumulacion.interes(tasaAnual, 1);
+        
+        verificarRedondeo(regla, tasaAnual);
+        
+        Validador.setMensajesHabilitados(false);
+        TransaccionService transaccionService = crearBanco(cuentas);
+        
+        // Referencia: un depósito por cuenta, calculando con BigDecimal
+        long inicio = System.nanoTime();
+        for (int i = 0; i < cuentas; i++) {
+            String dni = CargaTrabajo.dniDeCuenta(i);
+            BigDecimal interes = transaccionService.obtenerSaldo(dni).multiply(tasaAnual)
+                    .divide(BigDecimal.valueOf(365), 2, RoundingMode.HALF_EVEN);
+            if (interes.signum() > 0) {
+                transaccionService.realizarDeposito(dni, interes);
+            }
+        }
+        long referenciaMilis = (System.nanoTime() - inicio) / 1_000_000;
+        
+        // Proceso por lotes con tráfico en paralelo
+        transaccionService = crearBanco(cuentas);
+        TransaccionService banco = transaccionService;
+        AtomicBoolean activo = new AtomicBoolean(true);
+        AtomicLong operaciones = new AtomicLong();
+        Thread trafico = new Thread(() -> {
+            SplittableRandom aleatorio = new SplittableRandom(11);
+            BigDecimal monto = new BigDecimal("3.50");
+            while (activo.get()) {
+                String dni = CargaTrabajo.dniDeCuenta(aleatorio.nextInt(cuentas));
+                if (aleatorio.nextBoolean()) {
+                    banco.realizarDeposito(dni, monto);
+                } else {
+                    banco.realizarRetiro(dni, monto);
+                }
+                operaciones.incrementAndGet();
+                LockSupport.parkNanos(20_000);   // Tráfico moderado, no una carga de saturación
+            }
+        }, "trafico");
+        trafico.start();
+        
+        AcumulacionService acumulacionService = new AcumulacionService(transaccionService, hilos);
+        String idProceso = "INTERES-BENCHMARK";
+        Thread cancelador = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                return;
+            }
+            acumulacionService.cancelar(idProceso);
+        });
+        cancelador.start();
+        ResultadoAcumulacion parcial = acumulacionService.ejecutar(idProceso, regla);
+        cancelador.join();
+        ResultadoAcumulacion completo = acumulacionService.ejecutar(idProceso, regla);
+        ResultadoAcumulacion repetido = acumulacionService.ejecutar(idProceso, regla);
+        activo.set(false);
+        trafico.join();
+        acumulacionService.detener();
+        
+        long[] intereses = new long[1];
+        transaccionService.getLibroMayor().recorrer(0, transaccionService.getLibroMayor().tamanio(), t -> {
+            if (t.getTipo().equals(Transaccion.TIPO_INTERES)) {
+                intereses[0]++;
+            }
+        });
+        ResultadoConciliacion conciliacion = new ConciliacionService(transaccionService, hilos).conciliar();
+        Validador.setMensajesHabilitados(true);
+        
+        System.out.println("Cuentas: " + cuentas + " - Hilos: " + hilos);
+        System.out.printf("Referencia (un depósito por cuenta): %d ms%n", referenciaMilis);
+        System.out.printf("Lote cancelado: %d de %d grupos en %d ms%n",
+                parcial.getGruposCompletados(), parcial.getGruposTotales(), parcial.getDuracionMilis());
+        System.out.printf("Lote reanudado: %d ms - %d cuentas con interés, S/ %s%n",
+                completo.getDuracionMilis(), completo.getCuentasConMovimiento(),
+                BigDecimal.valueOf(completo.getMontoTotalCentimos(), 2));
+        System.out.printf("Repetición: %s - movimientos de interés en el libro: %d%n",
+                repetido.getCuentasConMovimiento() == completo.getCuentasConMovimiento() ? "sin cambios" : "CAMBIÓ",
+                intereses[0]);
+        System.out.printf("Operaciones concurrentes: %d - Conciliación: %s%n", operaciones.get(),
+                conciliacion.estaConciliado() ? "sin descuadres" : conciliacion.getDescuadres().size() + " descuadres");
+    }
+    
+    private static TransaccionService crearBanco(int cuentas) {
+        TransaccionService transaccionService = new TransaccionService(new UsuarioService(),
+                new LimitadorTransacciones(LimitadorTransacciones.SIN_LIMITE, LimitadorTransacciones.SIN_LIMITE, 1));
+        SplittableRandom aleatorio = new SplittableRandom(3);
+        for (int i = 0; i < cuentas; i++) {
+            transaccionService.registrarUsuario(CargaTrabajo.dniDeCuenta(i), "Cliente Intereses",
+                    BigDecimal.valueOf(aleatorio.nextLong(1_000_000_00L), 2));
+        }
+        return transaccionService;
+    }
+    
+    /**
+     * Compara el cálculo en céntimos con BigDecimal sobre saldos aleatorios.
+     */
+    private static void verificarRedondeo(ReglaAcumulacion regla, BigDecimal tasaAnual) {
+        SplittableRandom aleatorio = new SplittableRandom(5);
+        for (int i = 0; i < 1_000_000; i++) {
+            long saldo = i < 100_000 ? i : aleatorio.nextLong(Long.MAX_VALUE);
+            long esperado = BigDecimal.valueOf(saldo).multiply(tasaAnual)
+                    .divide(BigDecimal.valueOf(365), 0, RoundingMode.HALF_EVEN).longValueExact();
+            if (regla.calcularCentimos(saldo) != esperado) {
+                throw new IllegalStateException("Redondeo distinto para el saldo " + saldo);
+            }
+        }
+        System.out.println("Redondeo: igual a BigDecimal HALF_EVEN en 1000000 saldos");
+    }
+}
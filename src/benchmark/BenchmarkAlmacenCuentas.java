@@ -0,0 +1,137 @@
+package benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import model.Usuario;
+import service.AlmacenCuentas;
+import service.AlmacenCuentasMemoria;
+import service.AlmacenCuentasOffHeap;
+import service.UsuarioService;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/**
+ * Compara las pausas del recolector de basura entre el almacén en memoria
+ * y el almacén fuera del heap, con muchas cuentas cargadas.
+ *
+ * Uso: java -Xmx4g benchmark.BenchmarkAlmacenCuentas [memoria|offheap] [cuentas] [operaciones]
+ */
+public class BenchmarkAlmacenCuentas {
+    
+    private static long pausas;
+    private static long pausaTotalMilis;
+    private static long pausaMaximaMilis;
+    private static long ciclosConcurrentes;
+    private static long cicloConcurrenteTotalMilis;
+    
+    public static void main(String[] args) {
+        String tipo = args.length > 0 ? args[0] : "offheap";
+        int cuentas = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int operaciones = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+        
+        registrarEscuchaGc();
+        
+        AlmacenCuentas almacen = tipo.equalsIgnoreCase("memoria") 
+                ? new AlmacenCuentasMemoria() 
+                : new AlmacenCuentasOffHeap();
+        UsuarioService usuarioService = new UsuarioService(almacen);
+        
+        System.out.println("Almacén: " + tipo + " - Cuentas: " + cuentas + " - Operaciones: " + operaciones);
+        
+        // Carga directa en el almacén para no imprimir un mensaje por cuenta
+        long inicio = System.nanoTime();
+        for (int i = 0; i < cuentas; i++) {
+            almacen.agregar(dniDe(i), "Cliente Numero " + i, BigDecimal.valueOf(100_000 + i % 1000, 2));
+        }
+        mostrarFase("Carga", inicio);
+        
+        // Consultas y actualizaciones de saldo aleatorias
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        BigDecimal uno = BigDecimal.ONE;
+        inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            Usuario usuario = usuarioService.buscarPorDni(dniDe(aleatorio.nextInt(cuentas)));
+            BigDecimal saldo = usuario.getSaldo();
+            usuarioService.actualizarSaldo(usuario, (i & 1) == 0 ? saldo.add(uno) : saldo.subtract(uno));
+        }
+        mostrarFase("Operaciones", inicio);
+        
+        inicio = System.nanoTime();
+        System.gc();
+        mostrarFase("GC completo", inicio);
+        
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Heap usado al final: %d MB%n", 
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+    }
+    
+    private static String dniDe(int numero) {
+        return String.format("%08d", 10_000_000 + numero);
+    }
+    
+    private static void mostrarFase(String fase, long inicioNanos) {
+        long duracion = (System.nanoTime() - inicioNanos) / 1_000_000;
+        esperarNotificaciones();
+        synchronized (BenchmarkAlmacenCuentas.class) {
+            System.out.printf("%-12s %7d ms - pausas GC: %d, total %d ms, máxima %d ms",
+                    fase, duracion, pausas, pausaTotalMilis, pausaMaximaMilis);
+            if (ciclosConcurrentes > 0) {
+                System.out.printf(" - ciclos concurrentes: %d, total %d ms",
+                        ciclosConcurrentes, cicloConcurrenteTotalMilis);
+            }
+            System.out.println();
+            pausas = 0;
+            pausaTotalMilis = 0;
+            pausaMaximaMilis = 0;
+            ciclosConcurrentes = 0;
+            cicloConcurrenteTotalMilis = 0;
+        }
+    }
+    
+    /**
+     * Las notificaciones de GC llegan de forma asíncrona.
+     */
+    private static void esperarNotificaciones() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Acumula la duración de cada recolección notificada por la JVM. Las pausas
+     * (con la aplicación detenida) se cuentan aparte de los ciclos concurrentes
+     * de ZGC, Shenandoah o G1, cuya duración incluye trabajo hecho en paralelo
+     * con la aplicación y no es una pausa.
+     */
+    private static void registrarEscuchaGc() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notificacion, contexto) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                        .equals(notificacion.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                        .from((CompositeData) notificacion.getUserData());
+                long duracion = info.getGcInfo().getDuration();
+                boolean concurrente = "end of GC cycle".equals(info.getGcAction())
+                        || info.getGcName().contains("Concurrent");
+                synchronized (BenchmarkAlmacenCuentas.class) {
+                    if (concurrente) {
+                        ciclosConcurrentes++;
+                        cicloConcurrenteTotalMilis += duracion;
+                    } else {
+                        pausas++;
+                        pausaTotalMilis += duracion;
+                        pausaMaximaMilis = Math.max(pausaMaximaMilis, duracion);
+                    }
+                }
+            }, null, null);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import model.ResultadoConciliacion;
+import model.Transaccion;
+import service.ConciliacionService;
+import service.LibroMayor;
+import service.LimitadorTransacciones;
+import service.TransaccionService;
+import service.UsuarioService;
+import util.Validador;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/**
+ * Mide la conciliación de saldos sobre un libro mayor grande.
+ * El libro se llena con pares de transferencias de ida y vuelta
+ * (no cambian saldos), así que el resultado debe quedar sin descuadres.
+ *
+ * Uso: java -Xmx4g benchmark.BenchmarkConciliacion [cuentas] [transacciones] [hilos]
+ */
+public class BenchmarkConciliacion {
+    
+    public static void main(String[] args) {
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long transacciones = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        
+        Validador.setMensajesHabilitados(false);
+        UsuarioService usuarioService = new UsuarioService();
+        TransaccionService transaccionService = new TransaccionService(usuarioService,
+                new LimitadorTransacciones(LimitadorTransacciones.SIN_LIMITE, LimitadorTransacciones.SIN_LIMITE, 1));
+        
+        String[] dnis = new String[cuentas];
+        BigDecimal saldoInicial = new BigDecimal("1000.00");
+        for (int i = 0; i < cuentas; i++) {
+            dnis[i] = CargaTrabajo.dniDeCuenta(i);
+            transaccionService.registrarUsuario(dnis[i], "Cliente Conciliacion", saldoInicial);
+        }
+        
+        LibroMayor libro = transaccionService.getLibroMayor();
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        BigDecimal monto = new BigDecimal("12.34");
+        while (libro.tamanio() + 2 <= transacciones) {
+            String a = dnis[aleatorio.nextInt(cuentas)];
+            String b = dnis[aleatorio.nextInt(cuentas)];
+            libro.registrar(new Transaccion(Transaccion.TIPO_TRANSFERENCIA, monto, a, b));
+            libro.registrar(new Transaccion(Transaccion.TIPO_TRANSFERENCIA, monto, b, a));
+        }
+        Validador.setMensajesHabilitados(true);
+        
+        System.out.println("Cuentas: " + cuentas + " - Transacciones: " + libro.tamanio() + " - Hilos: " + hilos);
+        ConciliacionService conciliacionService = new ConciliacionService(transaccionService, hilos);
+        for (int ronda = 1; ronda <= 3; ronda++) {
+            ResultadoConciliacion resultado = conciliacionService.conciliar();
+            System.out.printf("Ronda %d: %d ms (%.1f M transacciones/s) - %s%n",
+                    ronda, resultado.getDuracionMilis(),
+                    resultado.getTransaccionesProcesadas() / 1e3 / Math.max(1, resultado.getDuracionMilis()),
+                    resultado.estaConciliado() ? "sin descuadres" : resultado.getDescuadres().size() + " descuadres");
+        }
+    }
+}
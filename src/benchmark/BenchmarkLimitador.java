@@ -0,0 +1,106 @@
+package benchmark;
+
+import service.LimitadorTransacciones;
+
+/**
+ * Micro benchmark del limitador de transacciones.
+ * Mide el costo por verificación de retiros y transferencias
+ * repartidas sobre muchas cuentas.
+ *
+ * Uso: java benchmark.BenchmarkLimitador [operaciones] [cuentas]
+ */
+public class BenchmarkLimitador {
+    
+    private static final int RONDAS = 5;
+    
+    public static void main(String[] args) {
+        int operaciones = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int cuentas = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 16;
+        if (operaciones < 1 || cuentas < 1) {
+            System.out.println("Las operaciones y las cuentas deben ser positivas.");
+            return;
+        }
+        
+        // DNIs creados antes de medir para no contar su asignación
+        String[] dnis = new String[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            dnis[i] = String.format("%08d", 10_000_000 + i * 7);
+        }
+        
+        System.out.println("Operaciones por ronda: " + operaciones + " - Cuentas: " + cuentas);
+        
+        for (int ronda = 1; ronda <= RONDAS; ronda++) {
+            // Límites altos: se mide el camino completo (CAS incluido), no el rechazo
+            LimitadorTransacciones limitador = new LimitadorTransacciones(
+                    0xFFFF, 1L << 39, cuentas);
+            
+            double nsBase = medirBase(dnis, operaciones);
+            double nsRetiro = medirRetiros(limitador, dnis, operaciones);
+            double nsTransferencia = medirTransferencias(limitador, dnis, operaciones);
+            
+            System.out.printf("Ronda %d: base %.1f ns/op - retiro %.1f ns/op (+%.1f) - transferencia %.1f ns/op (+%.1f)%n",
+                    ronda, nsBase, nsRetiro, nsRetiro - nsBase, nsTransferencia, nsTransferencia - nsBase);
+        }
+    }
+    
+    /**
+     * Recorre los mismos DNIs sin limitador, para descontar el costo
+     * de leerlos (que la operación real ya paga al buscar al usuario).
+     * Todas las mediciones recorren las cuentas en ciclo, sea cual sea su cantidad.
+     */
+    private static double medirBase(String[] dnis, int operaciones) {
+        int cuenta = 0;
+        long acumulado = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            String dni = dnis[cuenta];
+            acumulado += dni.charAt(dni.length() - 1);
+            if (++cuenta == dnis.length) {
+                cuenta = 0;
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+        if (acumulado == 42) {
+            System.out.println();
+        }
+        return (double) duracion / operaciones;
+    }
+    
+    private static double medirRetiros(LimitadorTransacciones limitador, String[] dnis, int operaciones) {
+        int cuenta = 0;
+        int rechazos = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            if (limitador.verificarRetiro(dnis[cuenta]) != null) {
+                rechazos++;
+            }
+            if (++cuenta == dnis.length) {
+                cuenta = 0;
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+        if (rechazos > 0) {
+            System.out.println("  (retiros rechazados: " + rechazos + ")");
+        }
+        return (double) duracion / operaciones;
+    }
+    
+    private static double medirTransferencias(LimitadorTransacciones limitador, String[] dnis, int operaciones) {
+        int cuenta = 0;
+        int rechazos = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            if (limitador.verificarTransferencia(dnis[cuenta], 100) != null) {
+                rechazos++;
+            }
+            if (++cuenta == dnis.length) {
+                cuenta = 0;
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+        if (rechazos > 0) {
+            System.out.println("  (transferencias rechazadas: " + rechazos + ")");
+        }
+        return (double) duracion / operaciones;
+    }
+}
@@ -0,0 +1,179 @@
+package benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Carga de trabajo sintética: población de cuentas y secuencia de operaciones.
+ * Las operaciones se guardan en arreglos primitivos y se pueden grabar en un
+ * archivo binario para reproducir exactamente la misma carga en otra ejecución.
+ */
+public class CargaTrabajo {
+    
+    // Tipos de operación
+    public static final byte OP_DEPOSITO = 0;
+    public static final byte OP_RETIRO = 1;
+    public static final byte OP_TRANSFERENCIA = 2;
+    public static final byte OP_CONSULTA_SALDO = 3;
+    public static final byte OP_HISTORIAL = 4;
+    public static final int TIPOS_OPERACION = 5;
+    
+    public static final String[] NOMBRES_OPERACION = {
+            "Depósito", "Retiro", "Transferencia", "Consulta saldo", "Historial"
+    };
+    
+    // Los DNIs de la carga se numeran a partir de este valor
+    private static final int PRIMER_DNI = 10_000_000;
+    
+    // Con más cuentas el DNI pasaría a tener 9 dígitos y el registro lo rechazaría
+    public static final int MAX_CUENTAS = 100_000_000 - PRIMER_DNI;
+    
+    private static final int MAGICO = 0x43415247;   // "CARG"
+    private static final int VERSION = 1;
+    
+    private long semilla;
+    private int cuentas;
+    private long saldoInicialCentimos;
+    private byte[] tipos;
+    private int[] origenes;
+    private int[] destinos;
+    private long[] montosCentimos;
+    
+    public CargaTrabajo(long semilla, int cuentas, long saldoInicialCentimos,
+                        byte[] tipos, int[] origenes, int[] destinos, long[] montosCentimos) {
+        this.semilla = semilla;
+        this.cuentas = cuentas;
+        this.saldoInicialCentimos = saldoInicialCentimos;
+        this.tipos = tipos;
+        this.origenes = origenes;
+        this.destinos = destinos;
+        this.montosCentimos = montosCentimos;
+    }
+    
+    // Getters
+    public long getSemilla() {
+        return semilla;
+    }
+    
+    public int getCuentas() {
+        return cuentas;
+    }
+    
+    public long getSaldoInicialCentimos() {
+        return saldoInicialCentimos;
+    }
+    
+    public int getOperaciones() {
+        return tipos.length;
+    }
+    
+    public byte getTipo(int operacion) {
+        return tipos[operacion];
+    }
+    
+    public int getOrigen(int operacion) {
+        return origenes[operacion];
+    }
+    
+    public int getDestino(int operacion) {
+        return destinos[operacion];
+    }
+    
+    public long getMontoCentimos(int operacion) {
+        return montosCentimos[operacion];
+    }
+    
+    /**
+     * Retorna el DNI (8 dígitos) de una cuenta de la carga.
+     */
+    public static String dniDeCuenta(int cuenta) {
+        if (cuenta < 0 || cuenta >= MAX_CUENTAS) {
+            throw new IllegalArgumentException("La cuenta " + cuenta + " no tiene un DNI de 8 dígitos.");
+        }
+        return String.format("%08d", PRIMER_DNI + cuenta);
+    }
+    
+    /**
+     * Calcula una huella (FNV-1a de 64 bits) del contenido de la carga.
+     * Dos cargas con la misma huella contienen las mismas operaciones.
+     */
+    public long huella() {
+        long h = 0xCBF29CE484222325L;
+        h = mezclarHuella(h, semilla);
+        h = mezclarHuella(h, cuentas);
+        h = mezclarHuella(h, saldoInicialCentimos);
+        for (int i = 0; i < tipos.length; i++) {
+            h = mezclarHuella(h, tipos[i]);
+            h = mezclarHuella(h, origenes[i]);
+            h = mezclarHuella(h, destinos[i]);
+            h = mezclarHuella(h, montosCentimos[i]);
+        }
+        return h;
+    }
+    
+    /**
+     * Graba la carga en un archivo binario.
+     */
+    public void guardar(Path archivo) throws IOException {
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(semilla);
+            salida.writeInt(cuentas);
+            salida.writeLong(saldoInicialCentimos);
+            salida.writeInt(tipos.length);
+            for (int i = 0; i < tipos.length; i++) {
+                salida.writeByte(tipos[i]);
+                salida.writeInt(origenes[i]);
+                salida.writeInt(destinos[i]);
+                salida.writeLong(montosCentimos[i]);
+            }
+        }
+    }
+    
+    /**
+     * Lee una carga grabada con guardar().
+     */
+    public static CargaTrabajo leer(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                throw new IOException("El archivo no es una carga de trabajo válida: " + archivo);
+            }
+            long semilla = entrada.readLong();
+            int cuentas = entrada.readInt();
+            if (cuentas < 2 || cuentas > MAX_CUENTAS) {
+                throw new IOException("La carga tiene una cantidad de cuentas no válida: " + cuentas);
+            }
+            long saldoInicialCentimos = entrada.readLong();
+            int operaciones = entrada.readInt();
+            
+            byte[] tipos = new byte[operaciones];
+            int[] origenes = new int[operaciones];
+            int[] destinos = new int[operaciones];
+            long[] montosCentimos = new long[operaciones];
+            for (int i = 0; i < operaciones; i++) {
+                tipos[i] = entrada.readByte();
+                origenes[i] = entrada.readInt();
+                destinos[i] = entrada.readInt();
+                montosCentimos[i] = entrada.readLong();
+            }
+            return new CargaTrabajo(semilla, cuentas, saldoInicialCentimos,
+                    tipos, origenes, destinos, montosCentimos);
+        }
+    }
+    
+    private static long mezclarHuella(long h, long valor) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (valor >>> (i * 8)) & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+}
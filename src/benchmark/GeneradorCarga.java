@@ -0,0 +1,147 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Genera cargas de trabajo sintéticas y deterministas a partir de una semilla.
+ * Las cuentas se eligen con una distribución de Zipf (unas pocas cuentas
+ * concentran la mayoría de operaciones) y los tipos de operación según pesos.
+ * La misma configuración produce siempre la misma carga.
+ */
+public class GeneradorCarga {
+    
+    private long semilla;
+    private int cuentas;
+    private int operaciones;
+    private double exponenteZipf;
+    private int[] pesos;
+    private long saldoInicialCentimos;
+    private long montoMaximoCentimos;
+    
+    /**
+     * @param pesos peso relativo de cada tipo de operación, en el orden de CargaTrabajo.OP_*
+     */
+    public GeneradorCarga(long semilla, int cuentas, int operaciones, double exponenteZipf,
+                          int[] pesos, long saldoInicialCentimos, long montoMaximoCentimos) {
+        if (cuentas < 2 || cuentas > CargaTrabajo.MAX_CUENTAS) {
+            throw new IllegalArgumentException(
+                    "La carga necesita entre 2 y " + CargaTrabajo.MAX_CUENTAS + " cuentas.");
+        }
+        if (pesos.length != CargaTrabajo.TIPOS_OPERACION) {
+            throw new IllegalArgumentException(
+                    "Se esperaban " + CargaTrabajo.TIPOS_OPERACION + " pesos de operación.");
+        }
+        this.semilla = semilla;
+        this.cuentas = cuentas;
+        this.operaciones = operaciones;
+        this.exponenteZipf = exponenteZipf;
+        this.pesos = pesos.clone();
+        this.saldoInicialCentimos = saldoInicialCentimos;
+        this.montoMaximoCentimos = montoMaximoCentimos;
+    }
+    
+    /**
+     * Genera la carga completa.
+     */
+    public CargaTrabajo generar() {
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        
+        double[] distribucion = distribucionZipf();
+        int[] cuentaPorRango = permutacion(aleatorio);
+        
+        int pesoTotal = 0;
+        for (int peso : pesos) {
+            pesoTotal += peso;
+        }
+        
+        byte[] tipos = new byte[operaciones];
+        int[] origenes = new int[operaciones];
+        int[] destinos = new int[operaciones];
+        long[] montosCentimos = new long[operaciones];
+        
+        for (int i = 0; i < operaciones; i++) {
+            byte tipo = elegirTipo(aleatorio.nextInt(pesoTotal));
+            int origen = cuentaPorRango[muestrearRango(distribucion, aleatorio.nextDouble())];
+            int destino = -1;
+            long monto = 0;
+            
+            if (tipo == CargaTrabajo.OP_TRANSFERENCIA) {
+                destino = cuentaPorRango[muestrearRango(distribucion, aleatorio.nextDouble())];
+                if (destino == origen) {
+                    destino = (origen + 1) % cuentas;
+                }
+            }
+            if (tipo == CargaTrabajo.OP_DEPOSITO || tipo == CargaTrabajo.OP_RETIRO
+                    || tipo == CargaTrabajo.OP_TRANSFERENCIA) {
+                monto = 1 + aleatorio.nextLong(montoMaximoCentimos);
+            }
+            
+            tipos[i] = tipo;
+            origenes[i] = origen;
+            destinos[i] = destino;
+            montosCentimos[i] = monto;
+        }
+        
+        return new CargaTrabajo(semilla, cuentas, saldoInicialCentimos,
+                tipos, origenes, destinos, montosCentimos);
+    }
+    
+    /**
+     * Función de distribución acumulada de Zipf sobre los rangos 0..cuentas-1.
+     * Usa StrictMath para que el resultado no dependa de la plataforma.
+     */
+    private double[] distribucionZipf() {
+        double[] acumulada = new double[cuentas];
+        double suma = 0;
+        for (int rango = 0; rango < cuentas; rango++) {
+            suma += 1.0 / StrictMath.pow(rango + 1, exponenteZipf);
+            acumulada[rango] = suma;
+        }
+        for (int rango = 0; rango < cuentas; rango++) {
+            acumulada[rango] /= suma;
+        }
+        return acumulada;
+    }
+    
+    /**
+     * Reparte los rangos entre las cuentas para que las cuentas "calientes"
+     * no sean siempre los primeros DNIs.
+     */
+    private int[] permutacion(SplittableRandom aleatorio) {
+        int[] cuentaPorRango = new int[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            cuentaPorRango[i] = i;
+        }
+        for (int i = cuentas - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int temporal = cuentaPorRango[i];
+            cuentaPorRango[i] = cuentaPorRango[j];
+            cuentaPorRango[j] = temporal;
+        }
+        return cuentaPorRango;
+    }
+    
+    private static int muestrearRango(double[] acumulada, double u) {
+        int bajo = 0;
+        int alto = acumulada.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (acumulada[medio] < u) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+    
+    private byte elegirTipo(int valor) {
+        for (byte tipo = 0; tipo < pesos.length; tipo++) {
+            if (valor < pesos[tipo]) {
+                return tipo;
+            }
+            valor -= pesos[tipo];
+        }
+        return (byte) (pesos.length - 1);
+    }
+}
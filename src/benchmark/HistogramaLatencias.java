@@ -0,0 +1,91 @@
+package benchmark;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas logarítmicas
+ * (32 subcubetas por potencia de 2, error relativo menor al 3%).
+ * Registrar un valor no crea objetos. No es seguro entre hilos:
+ * cada hilo usa el suyo y al final se combinan.
+ */
+public class HistogramaLatencias {
+    
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+    
+    private long[] conteos;
+    private long total;
+    private long maximo;
+    
+    public HistogramaLatencias() {
+        this.conteos = new long[CUBETAS];
+    }
+    
+    /**
+     * Registra una latencia.
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        conteos[indice(nanos)]++;
+        total++;
+        if (nanos > maximo) {
+            maximo = nanos;
+        }
+    }
+    
+    /**
+     * Suma los valores de otro histograma a este.
+     */
+    public void combinar(HistogramaLatencias otro) {
+        for (int i = 0; i < CUBETAS; i++) {
+            conteos[i] += otro.conteos[i];
+        }
+        total += otro.total;
+        maximo = Math.max(maximo, otro.maximo);
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public long getMaximo() {
+        return maximo;
+    }
+    
+    /**
+     * Retorna el valor del percentil dado (0-100), aproximado al límite superior de su cubeta.
+     */
+    public long percentil(double porcentaje) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(porcentaje / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+    
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        int mantisa = (int) (valor >>> desplazamiento) & (SUBCUBETAS - 1);
+        return (desplazamiento + 1) * SUBCUBETAS + mantisa;
+    }
+    
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long base = (long) (SUBCUBETAS + indice % SUBCUBETAS) << desplazamiento;
+        return base + (1L << desplazamiento) - 1;
+    }
+}
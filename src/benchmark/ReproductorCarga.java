@@ -0,0 +1,409 @@
+package benchmark;
+
+import model.ResultadoConciliacion;
+import model.Transaccion;
+import service.AlmacenCuentas;
+import service.AlmacenCuentasMemoria;
+import service.AlmacenCuentasOffHeap;
+import service.ConciliacionService;
+import service.LibroMayor;
+import service.LimitadorTransacciones;
+import service.PoliticaRetencion;
+import service.TransaccionService;
+import service.UsuarioService;
+import util.Validador;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Genera y reproduce cargas de trabajo contra UsuarioService y TransaccionService,
+ * y reporta rendimiento, percentiles de latencia y una suma de control de saldos.
+ *
+ * Uso:
+ *   java benchmark.ReproductorCarga generar archivo=carga.bin [semilla=42] [cuentas=100000]
+ *        [operaciones=1000000] [zipf=0.99] [mezcla=300,250,250,195,5] [saldo=1000000] [montoMaximo=10000]
+ *   java benchmark.ReproductorCarga ejecutar archivo=carga.bin [hilos=4] [almacen=memoria|offheap]
+ *        [conciliar=true] [libro=<directorio>] [enMemoria=262144] [segmento=65536]
+ *
+ * Montos y saldos en céntimos. La mezcla son pesos de depósito, retiro, transferencia,
+ * consulta de saldo e historial. Con un solo hilo la suma de control es idéntica entre
+ * ejecuciones de la misma carga; con varios hilos el orden cambia, así que se verifica
+ * además que el total de dinero cuadre con las operaciones aceptadas.
+ * Con conciliar=true se concilian los saldos contra el libro mayor durante la carga (desde un
+ * hilo aparte, en rondas, una vez registrado el 10% de las operaciones) y al final.
+ * Con libro=<directorio> las transacciones que exceden enMemoria pasan a segmentos en disco.
+ */
+public class ReproductorCarga {
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Uso: ReproductorCarga generar|ejecutar archivo=<ruta> [opciones]");
+            return;
+        }
+        
+        Map<String, String> opciones = leerOpciones(args);
+        if (!opciones.containsKey("archivo")) {
+            Validador.mostrarError("Falta la opción archivo=<ruta>.");
+            return;
+        }
+        Path archivo = Paths.get(opciones.get("archivo"));
+        
+        switch (args[0]) {
+            case "generar":
+                generar(archivo, opciones);
+                break;
+            case "ejecutar":
+                ejecutar(archivo, opciones);
+                break;
+            default:
+                Validador.mostrarError("Comando no válido: " + args[0]);
+        }
+    }
+    
+    /**
+     * Genera una carga y la graba en el archivo.
+     */
+    private static void generar(Path archivo, Map<String, String> opciones) throws IOException {
+        String[] mezcla = opciones.getOrDefault("mezcla", "300,250,250,195,5").split(",");
+        int[] pesos = new int[mezcla.length];
+        for (int i = 0; i < mezcla.length; i++) {
+            pesos[i] = Integer.parseInt(mezcla[i].trim());
+        }
+        
+        GeneradorCarga generador = new GeneradorCarga(
+                Long.parseLong(opciones.getOrDefault("semilla", "42")),
+                Integer.parseInt(opciones.getOrDefault("cuentas", "100000")),
+                Integer.parseInt(opciones.getOrDefault("operaciones", "1000000")),
+                Double.parseDouble(opciones.getOrDefault("zipf", "0.99")),
+                pesos,
+                Long.parseLong(opciones.getOrDefault("saldo", "1000000")),
+                Long.parseLong(opciones.getOrDefault("montoMaximo", "10000")));
+        
+        CargaTrabajo carga = generador.generar();
+        carga.guardar(archivo);
+        
+        System.out.printf("Carga generada en %s: %d cuentas, %d operaciones, huella %016x%n",
+                archivo, carga.getCuentas(), carga.getOperaciones(), carga.huella());
+    }
+    
+    /**
+     * Reproduce una carga grabada y muestra los resultados.
+     */
+    private static void ejecutar(Path archivo, Map<String, String> opciones) throws Exception {
+        CargaTrabajo carga = CargaTrabajo.leer(archivo);
+        int hilos = Integer.parseInt(opciones.getOrDefault("hilos", "4"));
+        String tipoAlmacen = opciones.getOrDefault("almacen", "memoria");
+        boolean conciliar = Boolean.parseBoolean(opciones.getOrDefault("conciliar", "true"));
+        
+        System.out.printf("Carga %s: %d cuentas, %d operaciones, huella %016x%n",
+                archivo, carga.getCuentas(), carga.getOperaciones(), carga.huella());
+        System.out.println("Hilos: " + hilos + " - Almacén: " + tipoAlmacen);
+        
+        // Sin mensajes por operación ni límites de velocidad (dependen del reloj)
+        Validador.setMensajesHabilitados(false);
+        AlmacenCuentas almacen = tipoAlmacen.equalsIgnoreCase("offheap")
+                ? new AlmacenCuentasOffHeap()
+                : new AlmacenCuentasMemoria();
+        UsuarioService usuarioService = new UsuarioService(almacen);
+        LibroMayor libro = crearLibroMayor(opciones);
+        TransaccionService transaccionService = new TransaccionService(usuarioService,
+                new LimitadorTransacciones(LimitadorTransacciones.SIN_LIMITE, LimitadorTransacciones.SIN_LIMITE, 1),
+                libro);
+        
+        String[] dnis = new String[carga.getCuentas()];
+        BigDecimal saldoInicial = BigDecimal.valueOf(carga.getSaldoInicialCentimos(), 2);
+        for (int cuenta = 0; cuenta < dnis.length; cuenta++) {
+            dnis[cuenta] = CargaTrabajo.dniDeCuenta(cuenta);
+            transaccionService.registrarUsuario(dnis[cuenta], "Cliente Carga", saldoInicial);
+        }
+        
+        // Cada hilo ejecuta las operaciones i con i % hilos == su número
+        Trabajador[] trabajadores = new Trabajador[hilos];
+        CountDownLatch inicio = new CountDownLatch(1);
+        for (int i = 0; i < hilos; i++) {
+            trabajadores[i] = new Trabajador(i, hilos, carga, dnis, transaccionService, inicio);
+            trabajadores[i].start();
+        }
+        
+        ConciliacionService conciliacionService = new ConciliacionService(transaccionService);
+        ConciliacionDurante durante = null;
+        if (conciliar) {
+            durante = new ConciliacionDurante(conciliacionService, libro,
+                    carga.getCuentas() + carga.getOperaciones() / 10);
+            durante.start();
+        }
+        long inicioNanos = System.nanoTime();
+        inicio.countDown();
+        
+        for (Trabajador trabajador : trabajadores) {
+            trabajador.join();
+        }
+        long duracionNanos = System.nanoTime() - inicioNanos;
+        if (durante != null) {
+            durante.detener();
+        }
+        Validador.setMensajesHabilitados(true);
+        
+        mostrarResultados(carga, trabajadores, duracionNanos);
+        verificarSaldos(carga, dnis, trabajadores, transaccionService);
+        if (conciliar) {
+            durante.mostrar();
+            mostrarConciliacion("al final", conciliacionService.conciliar());
+        }
+        
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Libro mayor: %d transacciones, %d en disco - Heap usado: %d MB%n",
+                libro.tamanio(), libro.transaccionesEnDisco(),
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        if (libro.getErrorRetencion() != null) {
+            System.out.printf("Retención en disco fallando (%d intentos seguidos): %s%n",
+                    libro.getFallosRetencion(), libro.getErrorRetencion().getMessage());
+        }
+        libro.cerrar();
+        
+        // Sin una ronda que vea operaciones además de las aperturas, no se probó la conciliación en línea
+        if (durante != null && durante.maximoTransacciones <= carga.getCuentas()) {
+            throw new IllegalStateException("Ninguna conciliación se ejecutó con la carga en curso.");
+        }
+    }
+    
+    private static LibroMayor crearLibroMayor(Map<String, String> opciones) {
+        if (!opciones.containsKey("libro")) {
+            return new LibroMayor();
+        }
+        return new LibroMayor(new PoliticaRetencion(
+                Paths.get(opciones.get("libro")),
+                Long.parseLong(opciones.getOrDefault("enMemoria", "262144")),
+                null,
+                Integer.parseInt(opciones.getOrDefault("segmento", "65536")),
+                PoliticaRetencion.SEGMENTOS_EN_CACHE_DEFECTO,
+                Duration.ofMillis(100)));
+    }
+    
+    private static void mostrarConciliacion(String momento, ResultadoConciliacion resultado) {
+        System.out.printf("Conciliación %s: %d cuentas, %d transacciones en %d ms - %s%n",
+                momento, resultado.getCuentasVerificadas(), resultado.getTransaccionesProcesadas(),
+                resultado.getDuracionMilis(),
+                resultado.estaConciliado() ? "SIN DESCUADRES" : resultado.getDescuadres().size() + " descuadres");
+    }
+    
+    private static void mostrarResultados(CargaTrabajo carga, Trabajador[] trabajadores, long duracionNanos) {
+        System.out.printf("%nDuración: %.2f s - Rendimiento: %.0f op/s%n",
+                duracionNanos / 1e9, carga.getOperaciones() / (duracionNanos / 1e9));
+        System.out.printf("%-15s %10s %10s %9s %9s %9s %9s %10s%n",
+                "OPERACIÓN", "TOTAL", "ACEPTADAS", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "máx µs");
+        
+        HistogramaLatencias global = new HistogramaLatencias();
+        for (int tipo = 0; tipo < CargaTrabajo.TIPOS_OPERACION; tipo++) {
+            HistogramaLatencias histograma = new HistogramaLatencias();
+            long aceptadas = 0;
+            for (Trabajador trabajador : trabajadores) {
+                histograma.combinar(trabajador.latencias[tipo]);
+                aceptadas += trabajador.aceptadas[tipo];
+            }
+            global.combinar(histograma);
+            mostrarFila(CargaTrabajo.NOMBRES_OPERACION[tipo], histograma, aceptadas);
+        }
+        mostrarFila("Todas", global, -1);
+    }
+    
+    private static void mostrarFila(String nombre, HistogramaLatencias histograma, long aceptadas) {
+        System.out.printf("%-15s %10d %10s %9.1f %9.1f %9.1f %9.1f %10.1f%n",
+                nombre, histograma.getTotal(), aceptadas < 0 ? "-" : String.valueOf(aceptadas),
+                histograma.percentil(50) / 1e3, histograma.percentil(90) / 1e3,
+                histograma.percentil(99) / 1e3, histograma.percentil(99.9) / 1e3,
+                histograma.getMaximo() / 1e3);
+    }
+    
+    /**
+     * Calcula la suma de control de los saldos finales (en orden de cuenta)
+     * y comprueba que el dinero total cuadre con depósitos y retiros aceptados.
+     */
+    private static void verificarSaldos(CargaTrabajo carga, String[] dnis, Trabajador[] trabajadores,
+                                        TransaccionService transaccionService) {
+        long sumaControl = 0xCBF29CE484222325L;
+        long total = 0;
+        for (String dni : dnis) {
+            long saldo = Validador.montoACentimos(transaccionService.obtenerSaldo(dni));
+            total += saldo;
+            sumaControl = (sumaControl ^ saldo) * 0x100000001B3L;
+        }
+        
+        long esperado = carga.getSaldoInicialCentimos() * dnis.length;
+        for (Trabajador trabajador : trabajadores) {
+            esperado += trabajador.depositadoCentimos - trabajador.retiradoCentimos;
+        }
+        
+        System.out.printf("%nSuma de control de saldos: %016x%n", sumaControl);
+        System.out.printf("Total de saldos: %d céntimos - esperado: %d céntimos - %s%n",
+                total, esperado, total == esperado ? "CUADRA" : "NO CUADRA");
+    }
+    
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int igual = args[i].indexOf('=');
+            if (igual > 0) {
+                opciones.put(args[i].substring(0, igual), args[i].substring(igual + 1));
+            }
+        }
+        return opciones;
+    }
+    
+    /**
+     * Hilo que ejecuta su parte de la carga y mide cada operación.
+     */
+    /**
+     * Concilia en rondas mientras los trabajadores siguen atendiendo operaciones.
+     * Espera a que el libro tenga al menos umbral transacciones, para que las
+     * instantáneas incluyan tráfico y no solo las aperturas.
+     */
+    private static class ConciliacionDurante extends Thread {
+        
+        private static final long PAUSA_ENTRE_RONDAS_MS = 50;
+        
+        private final ConciliacionService conciliacionService;
+        private final LibroMayor libro;
+        private final long umbral;
+        private volatile boolean activa;
+        
+        private int rondas;
+        private int rondasConDescuadre;
+        private long minimoTransacciones = Long.MAX_VALUE;
+        private long maximoTransacciones;
+        private long maximaDuracionMilis;
+        
+        ConciliacionDurante(ConciliacionService conciliacionService, LibroMayor libro, long umbral) {
+            super("conciliacion-carga");
+            this.conciliacionService = conciliacionService;
+            this.libro = libro;
+            this.umbral = umbral;
+            this.activa = true;
+        }
+        
+        @Override
+        public void run() {
+            while (activa && libro.tamanio() < umbral) {
+                LockSupport.parkNanos(1_000_000);
+            }
+            while (activa) {
+                ResultadoConciliacion resultado = conciliacionService.conciliar();
+                rondas++;
+                if (!resultado.estaConciliado()) {
+                    rondasConDescuadre++;
+                }
+                minimoTransacciones = Math.min(minimoTransacciones, resultado.getTransaccionesProcesadas());
+                maximoTransacciones = Math.max(maximoTransacciones, resultado.getTransaccionesProcesadas());
+                maximaDuracionMilis = Math.max(maximaDuracionMilis, resultado.getDuracionMilis());
+                LockSupport.parkNanos(PAUSA_ENTRE_RONDAS_MS * 1_000_000);
+            }
+        }
+        
+        /**
+         * Pide terminar después de la ronda en curso y espera al hilo.
+         */
+        void detener() throws InterruptedException {
+            activa = false;
+            join();
+        }
+        
+        void mostrar() {
+            if (rondas == 0) {
+                Validador.mostrarError("Conciliación durante la carga: no se llegó a ejecutar ninguna ronda.");
+                return;
+            }
+            System.out.printf("Conciliación durante la carga: %d rondas, de %d a %d transacciones, "
+                            + "la más lenta en %d ms - %s%n",
+                    rondas, minimoTransacciones, maximoTransacciones, maximaDuracionMilis,
+                    rondasConDescuadre == 0 ? "SIN DESCUADRES" : rondasConDescuadre + " rondas con descuadres");
+        }
+    }
+    
+    private static class Trabajador extends Thread {
+        
+        private final int numero;
+        private final int hilos;
+        private final CargaTrabajo carga;
+        private final String[] dnis;
+        private final TransaccionService transaccionService;
+        private final CountDownLatch inicio;
+        
+        private final HistogramaLatencias[] latencias;
+        private final long[] aceptadas;
+        private long depositadoCentimos;
+        private long retiradoCentimos;
+        
+        Trabajador(int numero, int hilos, CargaTrabajo carga, String[] dnis,
+                   TransaccionService transaccionService, CountDownLatch inicio) {
+            super("carga-" + numero);
+            this.numero = numero;
+            this.hilos = hilos;
+            this.carga = carga;
+            this.dnis = dnis;
+            this.transaccionService = transaccionService;
+            this.inicio = inicio;
+            this.latencias = new HistogramaLatencias[CargaTrabajo.TIPOS_OPERACION];
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = new HistogramaLatencias();
+            }
+            this.aceptadas = new long[CargaTrabajo.TIPOS_OPERACION];
+        }
+        
+        @Override
+        public void run() {
+            try {
+                inicio.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            
+            for (int i = numero; i < carga.getOperaciones(); i += hilos) {
+                byte tipo = carga.getTipo(i);
+                long inicioNanos = System.nanoTime();
+                boolean aceptada = ejecutar(i, tipo);
+                latencias[tipo].registrar(System.nanoTime() - inicioNanos);
+                
+                if (aceptada) {
+                    aceptadas[tipo]++;
+                    if (tipo == CargaTrabajo.OP_DEPOSITO) {
+                        depositadoCentimos += carga.getMontoCentimos(i);
+                    } else if (tipo == CargaTrabajo.OP_RETIRO) {
+                        retiradoCentimos += carga.getMontoCentimos(i);
+                    }
+                }
+            }
+        }
+        
+        private boolean ejecutar(int i, byte tipo) {
+            String dni = dnis[carga.getOrigen(i)];
+            switch (tipo) {
+                case CargaTrabajo.OP_DEPOSITO:
+                    return transaccionService.realizarDeposito(dni, monto(i));
+                case CargaTrabajo.OP_RETIRO:
+                    return transaccionService.realizarRetiro(dni, monto(i));
+                case CargaTrabajo.OP_TRANSFERENCIA:
+                    return transaccionService.realizarTransferencia(dni, dnis[carga.getDestino(i)], monto(i));
+                case CargaTrabajo.OP_CONSULTA_SALDO:
+                    return transaccionService.obtenerSaldo(dni) != null;
+                case CargaTrabajo.OP_HISTORIAL:
+                    List<Transaccion> historial = transaccionService.obtenerHistorialPorUsuario(dni);
+                    return historial != null;
+                default:
+                    return false;
+            }
+        }
+        
+        private BigDecimal monto(int i) {
+            return BigDecimal.valueOf(carga.getMontoCentimos(i), 2);
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package main;
 
+import service.AcumulacionService;
+import service.AlmacenCuentas;
+import service.AlmacenCuentasMemoria;
+import service.AlmacenCuentasOffHeap;
+import service.ConciliacionService;
+import service.LibroMayor;
+import service.LimitadorTransacciones;
+import service.PoliticaRetencion;
+import service.ReglaAcumulacion;
 import service.TransaccionService;
 import service.UsuarioService;
 import util.Validador;
 
 import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Scanner;
 
 /**
@@ -17,6 +31,8 @@ public class App {
     private static Scanner scanner;
     private static UsuarioService usuarioService;
     private static TransaccionService transaccionService;
+    private static ConciliacionService conciliacionService;
+    private static AcumulacionService acumulacionService;
     
     public static void main(String[] args) {
         inicializarSistema();
@@ -28,14 +44,68 @@ public class App {
      */
     private static void inicializarSistema() {
         scanner = new Scanner(System.in);
-        usuarioService = new UsuarioService();
-        transaccionService = new TransaccionService(usuarioService);
+        usuarioService = new UsuarioService(crearAlmacen());
+        transaccionService = new TransaccionService(usuarioService, 
+                new LimitadorTransacciones(), crearLibroMayor());
+        conciliacionService = new ConciliacionService(transaccionService);
+        acumulacionService = new AcumulacionService(transaccionService);
+        programarProcesos();
         
         System.out.println("=".repeat(50));
         System.out.println("   SISTEMA DE GESTION BANCARIA - BIENVENIDO");
         System.out.println("=".repeat(50));
     }
     
+    /**
+     * Crea el almacén de cuentas según la propiedad "banco.almacen"
+     * (memoria por defecto, u offheap para millones de cuentas).
+     */
+    private static AlmacenCuentas crearAlmacen() {
+        String tipo = System.getProperty("banco.almacen", "memoria");
+        if (tipo.equalsIgnoreCase("offheap")) {
+            return new AlmacenCuentasOffHeap();
+        }
+        return new AlmacenCuentasMemoria();
+    }
+    
+    /**
+     * Crea el libro mayor. Si se define la propiedad "banco.libro.directorio",
+     * las transacciones antiguas pasan a disco según "banco.libro.enMemoria"
+     * (cantidad de transacciones) y "banco.libro.edadMinutos".
+     */
+    private static LibroMayor crearLibroMayor() {
+        String directorio = System.getProperty("banco.libro.directorio");
+        if (directorio == null) {
+            return new LibroMayor();
+        }
+        
+        long enMemoria = Long.getLong("banco.libro.enMemoria", 1_000_000L);
+        Long edadMinutos = Long.getLong("banco.libro.edadMinutos");
+        return new LibroMayor(new PoliticaRetencion(Paths.get(directorio), enMemoria,
+                edadMinutos == null ? null : Duration.ofMinutes(edadMinutos)));
+    }
+    
+    /**
+     * Programa los procesos por lotes definidos por propiedades:
+     * "banco.intereses.tasaAnual" (p. ej. 0.035) abona intereses cada noche y
+     * "banco.comision.monto" cobra la comisión el día 1 de cada mes
+     * (exenta desde "banco.comision.saldoExento", si se define).
+     */
+    private static void programarProcesos() {
+        String tasaAnual = System.getProperty("banco.intereses.tasaAnual");
+        if (tasaAnual != null) {
+            acumulacionService.programarDiario("INTERES",
+                    ReglaAcumulacion.interes(new BigDecimal(tasaAnual), 1), LocalTime.MIDNIGHT);
+        }
+        
+        String comision = System.getProperty("banco.comision.monto");
+        if (comision != null) {
+            String saldoExento = System.getProperty("banco.comision.saldoExento");
+            acumulacionService.programarMensual("COMISION", ReglaAcumulacion.comision(new BigDecimal(comision),
+                    saldoExento == null ? null : new BigDecimal(saldoExento)), 1, LocalTime.MIDNIGHT);
+        }
+    }
+    
     /**
      * Ejecuta el bucle principal del menú.
      */
@@ -49,6 +119,8 @@ public class App {
         } while (opcion != 0);
         
         System.out.println("\n¡Gracias por usar el sistema! Hasta pronto.");
+        acumulacionService.detener();
+        transaccionService.getLibroMayor().cerrar();
         scanner.close();
     }
     
@@ -65,6 +137,9 @@ public class App {
         System.out.println("6. Consultar saldo");
         System.out.println("7. Ver historial de transacciones");
         System.out.println("8. Ver historial por usuario");
+        System.out.println("9. Conciliar saldos");
+        System.out.println("10. Abonar intereses del día");
+        System.out.println("11. Cobrar comisión de mantenimiento del mes");
         System.out.println("0. Salir");
         System.out.println("=".repeat(42));
         System.out.print("Seleccione una opción: ");
@@ -111,6 +186,15 @@ public class App {
             case 8:
                 verHistorialPorUsuario();
                 break;
+            case 9:
+                conciliacionService.mostrarConciliacion();
+                break;
+            case 10:
+                abonarIntereses();
+                break;
+            case 11:
+                cobrarComision();
+                break;
             case 0:
                 // Salir - no hace nada
                 break;
@@ -139,7 +223,7 @@ public class App {
             return;
         }
         
-        usuarioService.registrarUsuario(dni, nombre, saldo);
+        transaccionService.registrarUsuario(dni, nombre, saldo);
     }
     
     /**
@@ -228,4 +312,44 @@ public class App {
         
         transaccionService.mostrarHistorialPorUsuario(dni);
     }
+    
+    /**
+     * Solicita la tasa anual y abona un día de intereses a todas las cuentas.
+     */
+    private static void abonarIntereses() {
+        System.out.println("\n--- INTERESES DEL DÍA ---");
+        
+        System.out.print("Ingrese tasa anual (%): ");
+        BigDecimal porcentaje = Validador.textoANumero(scanner.nextLine());
+        
+        if (porcentaje == null || porcentaje.signum() < 0) {
+            Validador.mostrarError("La tasa ingresada no es válida.");
+            return;
+        }
+        
+        ReglaAcumulacion regla = ReglaAcumulacion.interes(porcentaje.movePointLeft(2), 1);
+        acumulacionService.mostrarAcumulacion(AcumulacionService.idDiario("INTERES", LocalDate.now()), regla);
+    }
+    
+    /**
+     * Solicita el monto y cobra la comisión de mantenimiento del mes a todas las cuentas.
+     */
+    private static void cobrarComision() {
+        System.out.println("\n--- COMISIÓN DE MANTENIMIENTO ---");
+        
+        System.out.print("Ingrese comisión (S/): ");
+        BigDecimal monto = Validador.textoAMonto(scanner.nextLine());
+        
+        System.out.print("Saldo exento desde (S/, vacío = ninguno): ");
+        String textoExento = scanner.nextLine().trim();
+        BigDecimal saldoExento = textoExento.isEmpty() ? null : Validador.textoAMonto(textoExento);
+        
+        if (monto == null || monto.signum() <= 0 || (!textoExento.isEmpty() && saldoExento == null)) {
+            Validador.mostrarError("El monto ingresado no es válido.");
+            return;
+        }
+        
+        ReglaAcumulacion regla = ReglaAcumulacion.comision(monto, saldoExento);
+        acumulacionService.mostrarAcumulacion(AcumulacionService.idMensual("COMISION", YearMonth.now()), regla);
+    }
 }
@@ -0,0 +1,41 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * Cuenta cuyo saldo registrado no coincide con el calculado a partir
+ * de sus movimientos en el libro mayor.
+ */
+public class Descuadre {
+    
+    private String dni;
+    private long saldoRegistradoCentimos;
+    private long saldoCalculadoCentimos;
+    
+    public Descuadre(String dni, long saldoRegistradoCentimos, long saldoCalculadoCentimos) {
+        this.dni = dni;
+        this.saldoRegistradoCentimos = saldoRegistradoCentimos;
+        this.saldoCalculadoCentimos = saldoCalculadoCentimos;
+    }
+    
+    // Getters
+    public String getDni() {
+        return dni;
+    }
+    
+    public long getSaldoRegistradoCentimos() {
+        return saldoRegistradoCentimos;
+    }
+    
+    public long getSaldoCalculadoCentimos() {
+        return saldoCalculadoCentimos;
+    }
+    
+    @Override
+    public String toString() {
+        return "DNI " + dni + 
+                " - Registrado: S/ " + BigDecimal.valueOf(saldoRegistradoCentimos, 2) + 
+                " - Según libro: S/ " + BigDecimal.valueOf(saldoCalculadoCentimos, 2) + 
+                " - Diferencia: S/ " + BigDecimal.valueOf(saldoRegistradoCentimos - saldoCalculadoCentimos, 2);
+    }
+}
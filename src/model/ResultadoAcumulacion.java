@@ -0,0 +1,66 @@
+package model;
+
+/**
+ * Resultado de un proceso por lotes de intereses o comisiones.
+ */
+public class ResultadoAcumulacion {
+    
+    private String idProceso;
+    private String regla;
+    private long cuentasProcesadas;
+    private long cuentasConMovimiento;   // Cuentas a las que se aplicó un monto distinto de cero
+    private long montoTotalCentimos;
+    private int gruposCompletados;
+    private int gruposTotales;
+    private long duracionMilis;          // Duración de esta ejecución (no de las anteriores)
+    
+    public ResultadoAcumulacion(String idProceso, String regla, long cuentasProcesadas,
+                                long cuentasConMovimiento, long montoTotalCentimos,
+                                int gruposCompletados, int gruposTotales, long duracionMilis) {
+        this.idProceso = idProceso;
+        this.regla = regla;
+        this.cuentasProcesadas = cuentasProcesadas;
+        this.cuentasConMovimiento = cuentasConMovimiento;
+        this.montoTotalCentimos = montoTotalCentimos;
+        this.gruposCompletados = gruposCompletados;
+        this.gruposTotales = gruposTotales;
+        this.duracionMilis = duracionMilis;
+    }
+    
+    // Getters
+    public String getIdProceso() {
+        return idProceso;
+    }
+    
+    public String getRegla() {
+        return regla;
+    }
+    
+    public long getCuentasProcesadas() {
+        return cuentasProcesadas;
+    }
+    
+    public long getCuentasConMovimiento() {
+        return cuentasConMovimiento;
+    }
+    
+    public long getMontoTotalCentimos() {
+        return montoTotalCentimos;
+    }
+    
+    public int getGruposCompletados() {
+        return gruposCompletados;
+    }
+    
+    public int getGruposTotales() {
+        return gruposTotales;
+    }
+    
+    public long getDuracionMilis() {
+        return duracionMilis;
+    }
+    
+    public boolean estaCompleto() {
+        return gruposCompletados == gruposTotales;
+    }
+}
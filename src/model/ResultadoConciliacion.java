@@ -0,0 +1,49 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Resultado de conciliar los saldos de las cuentas contra el libro mayor.
+ */
+public class ResultadoConciliacion {
+    
+    private int cuentasVerificadas;
+    private long transaccionesProcesadas;
+    private long movimientosSinCuenta;     // Movimientos de DNIs sin cuenta o de tipo desconocido
+    private List<Descuadre> descuadres;
+    private long duracionMilis;
+    
+    public ResultadoConciliacion(int cuentasVerificadas, long transaccionesProcesadas,
+                                 long movimientosSinCuenta, List<Descuadre> descuadres, long duracionMilis) {
+        this.cuentasVerificadas = cuentasVerificadas;
+        this.transaccionesProcesadas = transaccionesProcesadas;
+        this.movimientosSinCuenta = movimientosSinCuenta;
+        this.descuadres = descuadres;
+        this.duracionMilis = duracionMilis;
+    }
+    
+    // Getters
+    public int getCuentasVerificadas() {
+        return cuentasVerificadas;
+    }
+    
+    public long getTransaccionesProcesadas() {
+        return transaccionesProcesadas;
+    }
+    
+    public long getMovimientosSinCuenta() {
+        return movimientosSinCuenta;
+    }
+    
+    public List<Descuadre> getDescuadres() {
+        return descuadres;
+    }
+    
+    public long getDuracionMilis() {
+        return duracionMilis;
+    }
+    
+    public boolean estaConciliado() {
+        return descuadres.isEmpty() && movimientosSinCuenta == 0;
+    }
+}
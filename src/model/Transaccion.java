@@ -1,5 +1,7 @@
 package model;
 
+import util.Validador;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -14,22 +16,49 @@ public class Transaccion {
     public static final String TIPO_DEPOSITO = "DEPOSITO";
     public static final String TIPO_RETIRO = "RETIRO";
     public static final String TIPO_TRANSFERENCIA = "TRANSFERENCIA";
+    public static final String TIPO_APERTURA = "APERTURA";      // Saldo inicial de la cuenta
+    public static final String TIPO_INTERES = "INTERES";        // Abono del proceso de intereses
+    public static final String TIPO_COMISION = "COMISION";      // Cargo del proceso de comisiones
     
     private String tipo;
     private BigDecimal monto;
+    private long montoCentimos;    // Monto en céntimos, para cálculos sin BigDecimal
     private LocalDateTime fechaHora;
     private String dniOrigen;      // Usuario que realiza la operación
     private String dniDestino;     // Solo aplica para transferencias
+    private int numeroDniOrigen;   // DNIs como enteros (-1 si no aplica), para búsquedas rápidas
+    private int numeroDniDestino;
     
     private static final DateTimeFormatter FORMATO_FECHA = 
             DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
     
     public Transaccion(String tipo, BigDecimal monto, String dniOrigen, String dniDestino) {
+        this(tipo, monto, dniOrigen, dniDestino, LocalDateTime.now());
+    }
+    
+    // Constructor con fecha explícita (p. ej. al leer transacciones guardadas en disco)
+    public Transaccion(String tipo, BigDecimal monto, String dniOrigen, String dniDestino,
+                       LocalDateTime fechaHora) {
         this.tipo = tipo;
         this.monto = monto;
-        this.fechaHora = LocalDateTime.now();
+        this.montoCentimos = Validador.montoACentimos(monto);
+        this.fechaHora = fechaHora;
         this.dniOrigen = dniOrigen;
         this.dniDestino = dniDestino;
+        this.numeroDniOrigen = Validador.dniANumero(dniOrigen);
+        this.numeroDniDestino = Validador.dniANumero(dniDestino);
+    }
+    
+    // Constructor a partir de céntimos (p. ej. intereses y comisiones calculados con long)
+    public Transaccion(String tipo, long montoCentimos, String dniOrigen) {
+        this.tipo = tipo;
+        this.monto = BigDecimal.valueOf(montoCentimos, Validador.DECIMALES_MONTO);
+        this.montoCentimos = montoCentimos;
+        this.fechaHora = LocalDateTime.now();
+        this.dniOrigen = dniOrigen;
+        this.dniDestino = null;
+        this.numeroDniOrigen = Validador.dniANumero(dniOrigen);
+        this.numeroDniDestino = -1;
     }
     
     // Constructor para depósitos y retiros (sin destino)
@@ -46,6 +75,10 @@ public class Transaccion {
         return monto;
     }
     
+    public long getMontoCentimos() {
+        return montoCentimos;
+    }
+    
     public LocalDateTime getFechaHora() {
         return fechaHora;
     }
@@ -58,6 +91,14 @@ public class Transaccion {
         return dniDestino;
     }
     
+    public int getNumeroDniOrigen() {
+        return numeroDniOrigen;
+    }
+    
+    public int getNumeroDniDestino() {
+        return numeroDniDestino;
+    }
+    
     public String getFechaFormateada() {
         return fechaHora.format(FORMATO_FECHA);
     }
@@ -1,5 +1,7 @@
 package model;
 
+import util.Validador;
+
 import java.math.BigDecimal;
 
 /**
@@ -11,11 +13,13 @@ public class Usuario {
     private String dni;
     private String nombreCompleto;
     private BigDecimal saldo;
+    private long saldoCentimos;    // Saldo en céntimos, para leerlo sin crear objetos
     
     public Usuario(String dni, String nombreCompleto, BigDecimal saldoInicial) {
         this.dni = dni;
         this.nombreCompleto = nombreCompleto;
         this.saldo = saldoInicial;
+        this.saldoCentimos = Validador.montoACentimos(saldoInicial);
     }
     
     // Getters
@@ -31,6 +35,10 @@ public class Usuario {
         return saldo;
     }
     
+    public long getSaldoCentimos() {
+        return saldoCentimos;
+    }
+    
     // Setters
     public void setNombreCompleto(String nombreCompleto) {
         this.nombreCompleto = nombreCompleto;
@@ -38,6 +46,12 @@ public class Usuario {
     
     public void setSaldo(BigDecimal saldo) {
         this.saldo = saldo;
+        this.saldoCentimos = Validador.montoACentimos(saldo);
+    }
+    
+    public void setSaldoCentimos(long saldoCentimos) {
+        this.saldo = BigDecimal.valueOf(saldoCentimos, Validador.DECIMALES_MONTO);
+        this.saldoCentimos = saldoCentimos;
     }
     
     @Override
@@ -0,0 +1,236 @@
+package service;
+
+import model.ResultadoAcumulacion;
+import util.Validador;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proceso por lotes de intereses y comisiones de mantenimiento.
+ *
+ * Recorre todas las cuentas en paralelo (fork/join) por grupos que comparten
+ * bloqueo en TransaccionService: cada grupo toma su bloqueo una sola vez,
+ * calcula los montos en céntimos y registra sus movimientos en el libro de una
+ * vez. Las demás cuentas siguen atendiendo operaciones mientras tanto.
+ *
+ * Cada proceso tiene un identificador (p. ej. "INTERES-2024-05-31"). Ejecutar
+ * de nuevo un identificador reanuda los grupos pendientes, y uno ya completo
+ * no vuelve a aplicarse.
+ */
+public class AcumulacionService {
+    
+    private static final int GRUPOS_POR_TAREA = 8;
+    
+    private TransaccionService transaccionService;
+    private ForkJoinPool hilos;
+    private Map<String, PuntoControlAcumulacion> puntosControl;
+    private ScheduledExecutorService programador;
+    
+    public AcumulacionService(TransaccionService transaccionService) {
+        this(transaccionService, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public AcumulacionService(TransaccionService transaccionService, int paralelismo) {
+        if (paralelismo < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1.");
+        }
+        this.transaccionService = transaccionService;
+        this.hilos = new ForkJoinPool(paralelismo);
+        this.puntosControl = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Identificador de un proceso diario, p. ej. "INTERES-2024-05-31".
+     */
+    public static String idDiario(String prefijo, LocalDate fecha) {
+        return prefijo + "-" + fecha;
+    }
+    
+    /**
+     * Identificador de un proceso mensual, p. ej. "COMISION-2024-05".
+     */
+    public static String idMensual(String prefijo, YearMonth mes) {
+        return prefijo + "-" + mes;
+    }
+    
+    /**
+     * Aplica la regla a todas las cuentas. Si el identificador ya tiene un
+     * punto de control, se reanuda con la regla original y se ignora la nueva.
+     */
+    public ResultadoAcumulacion ejecutar(String idProceso, ReglaAcumulacion regla) {
+        int grupos = transaccionService.numeroBloqueos();
+        PuntoControlAcumulacion puntoControl = puntosControl.computeIfAbsent(idProceso,
+                id -> new PuntoControlAcumulacion(id, regla, grupos));
+        
+        // Dos ejecuciones del mismo proceso no avanzan a la vez
+        synchronized (puntoControl) {
+            long inicio = System.nanoTime();
+            if (!puntoControl.estaCompleto()) {
+                puntoControl.setCancelado(false);
+                List<List<String>> cuentas = transaccionService.agruparCuentasPorBloqueo();
+                hilos.invoke(new Barrido(puntoControl, cuentas, 0, cuentas.size()));
+            }
+            return puntoControl.crearResultado((System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+    
+    /**
+     * Detiene un proceso en curso después de los grupos que ya están aplicándose.
+     * Se reanuda llamando de nuevo a ejecutar() con el mismo identificador.
+     */
+    public void cancelar(String idProceso) {
+        PuntoControlAcumulacion puntoControl = puntosControl.get(idProceso);
+        if (puntoControl != null) {
+            puntoControl.setCancelado(true);
+        }
+    }
+    
+    /**
+     * Programa la regla todos los días a la hora indicada.
+     */
+    public void programarDiario(String prefijo, ReglaAcumulacion regla, LocalTime hora) {
+        programar(prefijo, regla, 0, hora);
+    }
+    
+    /**
+     * Programa la regla una vez al mes, el día indicado (o el último día si el mes es más corto).
+     */
+    public void programarMensual(String prefijo, ReglaAcumulacion regla, int diaDelMes, LocalTime hora) {
+        if (diaDelMes < 1 || diaDelMes > 31) {
+            throw new IllegalArgumentException("El día del mes debe estar entre 1 y 31.");
+        }
+        programar(prefijo, regla, diaDelMes, hora);
+    }
+    
+    /**
+     * Detiene los procesos programados y los hilos del barrido.
+     */
+    public void detener() {
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        hilos.shutdown();
+    }
+    
+    /**
+     * Ejecuta el proceso y muestra el resultado en consola.
+     */
+    public void mostrarAcumulacion(String idProceso, ReglaAcumulacion regla) {
+        boolean yaCompleto = puntosControl.containsKey(idProceso) && puntosControl.get(idProceso).estaCompleto();
+        ResultadoAcumulacion resultado = ejecutar(idProceso, regla);
+        
+        System.out.println("\n========== PROCESO " + resultado.getIdProceso() + " ==========");
+        System.out.println("Regla: " + resultado.getRegla());
+        System.out.println("Cuentas procesadas: " + resultado.getCuentasProcesadas());
+        System.out.println("Cuentas con movimiento: " + resultado.getCuentasConMovimiento());
+        System.out.println("Monto total: S/ " + BigDecimal.valueOf(resultado.getMontoTotalCentimos(), 2));
+        
+        if (yaCompleto) {
+            Validador.mostrarInfo("Este proceso ya se había aplicado; no se repitió.");
+        } else if (resultado.estaCompleto()) {
+            Validador.mostrarExito("Proceso completado en " + resultado.getDuracionMilis() + " ms.");
+        } else {
+            Validador.mostrarError("Proceso incompleto (" + resultado.getGruposCompletados() + " de "
+                    + resultado.getGruposTotales() + " grupos). Puede reanudarse.");
+        }
+    }
+    
+    /**
+     * Programa la siguiente ejecución; cada ejecución programa la que sigue,
+     * así los meses de distinta duración se calculan en cada paso.
+     */
+    private synchronized void programar(String prefijo, ReglaAcumulacion regla, int diaDelMes, LocalTime hora) {
+        if (programador == null) {
+            programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "programador-acumulacion");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime siguiente = siguienteEjecucion(ahora, diaDelMes, hora);
+        programador.schedule(() -> {
+            LocalDate fecha = siguiente.toLocalDate();
+            String idProceso = diaDelMes == 0
+                    ? idDiario(prefijo, fecha)
+                    : idMensual(prefijo, YearMonth.from(fecha));
+            try {
+                ResultadoAcumulacion resultado = ejecutar(idProceso, regla);
+                Validador.mostrarInfo("Proceso " + idProceso + ": " + resultado.getCuentasConMovimiento()
+                        + " cuentas, S/ " + BigDecimal.valueOf(resultado.getMontoTotalCentimos(), 2));
+            } catch (RuntimeException e) {
+                Validador.mostrarError("Falló el proceso " + idProceso + ": " + e.getMessage());
+            }
+            programar(prefijo, regla, diaDelMes, hora);
+        }, ahora.until(siguiente, ChronoUnit.MILLIS), TimeUnit.MILLISECONDS);
+    }
+    
+    private static LocalDateTime siguienteEjecucion(LocalDateTime ahora, int diaDelMes, LocalTime hora) {
+        if (diaDelMes == 0) {
+            LocalDateTime hoy = ahora.toLocalDate().atTime(hora);
+            return hoy.isAfter(ahora) ? hoy : hoy.plusDays(1);
+        }
+        
+        YearMonth mes = YearMonth.from(ahora);
+        LocalDateTime candidata = mes.atDay(Math.min(diaDelMes, mes.lengthOfMonth())).atTime(hora);
+        if (!candidata.isAfter(ahora)) {
+            mes = mes.plusMonths(1);
+            candidata = mes.atDay(Math.min(diaDelMes, mes.lengthOfMonth())).atTime(hora);
+        }
+        return candidata;
+    }
+    
+    /**
+     * Tarea fork/join que divide el rango de grupos hasta GRUPOS_POR_TAREA.
+     */
+    private class Barrido extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final PuntoControlAcumulacion puntoControl;
+        private final List<List<String>> cuentas;
+        private final int desde;
+        private final int hasta;
+        
+        Barrido(PuntoControlAcumulacion puntoControl, List<List<String>> cuentas, int desde, int hasta) {
+            this.puntoControl = puntoControl;
+            this.cuentas = cuentas;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hasta - desde > GRUPOS_POR_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Barrido(puntoControl, cuentas, desde, medio),
+                        new Barrido(puntoControl, cuentas, medio, hasta));
+                return;
+            }
+            
+            for (int grupo = desde; grupo < hasta; grupo++) {
+                if (puntoControl.estaCancelado()) {
+                    return;
+                }
+                if (!puntoControl.grupoCompletado(grupo)) {
+                    transaccionService.aplicarAcumulacion(grupo, cuentas.get(grupo),
+                            puntoControl.getRegla(), puntoControl);
+                }
+            }
+        }
+    }
+}
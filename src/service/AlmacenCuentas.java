@@ -0,0 +1,68 @@
+package service;
+
+import model.Usuario;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Define dónde y cómo se guardan las cuentas de los usuarios.
+ * UsuarioService delega en esta interfaz, de modo que el resto del
+ * sistema no depende de la implementación de almacenamiento.
+ */
+public interface AlmacenCuentas {
+    
+    /** Valor que retorna obtenerSaldoCentimos cuando la cuenta no existe. */
+    long SIN_CUENTA = Long.MIN_VALUE;
+    
+    /**
+     * Guarda una cuenta nueva. El DNI no debe existir previamente.
+     */
+    void agregar(String dni, String nombreCompleto, BigDecimal saldo);
+    
+    /**
+     * Retorna el usuario con el DNI dado o null si no existe.
+     */
+    Usuario buscar(String dni);
+    
+    /**
+     * Verifica si existe una cuenta con el DNI dado.
+     */
+    boolean existe(String dni);
+    
+    /**
+     * Guarda el nuevo saldo de una cuenta existente.
+     */
+    void actualizarSaldo(String dni, BigDecimal saldo);
+    
+    /**
+     * Retorna el saldo en céntimos de una cuenta o SIN_CUENTA si no existe.
+     */
+    long obtenerSaldoCentimos(String dni);
+    
+    /**
+     * Guarda el nuevo saldo, en céntimos, de una cuenta existente.
+     */
+    void actualizarSaldoCentimos(String dni, long saldoCentimos);
+    
+    /**
+     * Retorna la cantidad de cuentas almacenadas.
+     */
+    int contar();
+    
+    /**
+     * Retorna todas las cuentas en orden de registro.
+     */
+    List<Usuario> listar();
+    
+    /**
+     * Copia en destino los saldos en céntimos de las primeras destino.length
+     * cuentas, en orden de registro. No crea objetos por cuenta.
+     */
+    void copiarSaldosCentimos(long[] destino);
+    
+    /**
+     * Retorna los DNIs de las primeras cantidad cuentas, en orden de registro.
+     */
+    String[] copiarDnis(int cantidad);
+}
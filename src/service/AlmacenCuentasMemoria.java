@@ -0,0 +1,93 @@
+package service;
+
+import model.Usuario;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacena las cuentas como objetos Usuario en el heap.
+ * Es la implementación por defecto. Indexa por DNI y conserva el orden de registro.
+ */
+public class AlmacenCuentasMemoria implements AlmacenCuentas {
+    
+    private Map<String, Usuario> usuariosPorDni;
+    
+    public AlmacenCuentasMemoria() {
+        this.usuariosPorDni = new LinkedHashMap<>();
+    }
+    
+    @Override
+    public void agregar(String dni, String nombreCompleto, BigDecimal saldo) {
+        usuariosPorDni.put(dni, new Usuario(dni, nombreCompleto, saldo));
+    }
+    
+    @Override
+    public Usuario buscar(String dni) {
+        return usuariosPorDni.get(dni);
+    }
+    
+    @Override
+    public boolean existe(String dni) {
+        return usuariosPorDni.containsKey(dni);
+    }
+    
+    @Override
+    public void actualizarSaldo(String dni, BigDecimal saldo) {
+        Usuario usuario = usuariosPorDni.get(dni);
+        if (usuario != null) {
+            usuario.setSaldo(saldo);
+        }
+    }
+    
+    @Override
+    public long obtenerSaldoCentimos(String dni) {
+        Usuario usuario = usuariosPorDni.get(dni);
+        return usuario == null ? SIN_CUENTA : usuario.getSaldoCentimos();
+    }
+    
+    @Override
+    public void actualizarSaldoCentimos(String dni, long saldoCentimos) {
+        Usuario usuario = usuariosPorDni.get(dni);
+        if (usuario != null) {
+            usuario.setSaldoCentimos(saldoCentimos);
+        }
+    }
+    
+    @Override
+    public int contar() {
+        return usuariosPorDni.size();
+    }
+    
+    @Override
+    public List<Usuario> listar() {
+        return new ArrayList<>(usuariosPorDni.values());
+    }
+    
+    @Override
+    public void copiarSaldosCentimos(long[] destino) {
+        int cuenta = 0;
+        for (Usuario usuario : usuariosPorDni.values()) {
+            if (cuenta == destino.length) {
+                return;
+            }
+            destino[cuenta++] = usuario.getSaldoCentimos();
+        }
+    }
+    
+    @Override
+    public String[] copiarDnis(int cantidad) {
+        String[] dnis = new String[cantidad];
+        int cuenta = 0;
+        for (String dni : usuariosPorDni.keySet()) {
+            if (cuenta == cantidad) {
+                break;
+            }
+            dnis[cuenta++] = dni;
+        }
+        return dnis;
+    }
+}
@@ -0,0 +1,252 @@
+package service;
+
+import model.Usuario;
+import util.Validador;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Almacena las cuentas fuera del heap (ByteBuffer.allocateDirect), pensado
+ * para millones de cuentas: el recolector de basura no tiene que recorrerlas.
+ * 
+ * Cada cuenta es un registro de tamaño fijo con el DNI como entero, el saldo
+ * en céntimos (long) y la ubicación del nombre en un área de texto aparte.
+ * El índice por DNI también vive fuera del heap. Los objetos Usuario se crean
+ * solo al consultarlos; modificarlos no cambia el almacén (usar actualizarSaldo).
+ * 
+ * Los saldos se guardan en céntimos exactos: un saldo con fracciones de
+ * céntimo o fuera de rango lanza ArithmeticException en vez de redondearse
+ * (los servicios ya los rechazan con Validador).
+ */
+public class AlmacenCuentasOffHeap implements AlmacenCuentas {
+    
+    // Registro: [dni int | bloque nombre int | inicio nombre int | longitud nombre int | saldo long]
+    private static final int TAMANIO_REGISTRO = 24;
+    private static final int POS_DNI = 0;
+    private static final int POS_BLOQUE_NOMBRE = 4;
+    private static final int POS_INICIO_NOMBRE = 8;
+    private static final int POS_LONGITUD_NOMBRE = 12;
+    private static final int POS_SALDO = 16;
+    
+    private static final int REGISTROS_POR_BLOQUE = 1 << 16;
+    private static final int TAMANIO_BLOQUE_NOMBRES = 1 << 20;
+    private static final int TAMANIO_INDICE_INICIAL = 1 << 10;
+    
+    private List<ByteBuffer> bloquesRegistros;
+    private List<ByteBuffer> bloquesNombres;
+    private int cantidad;
+    
+    // Tabla de direccionamiento abierto: número de registro + 1 (0 = libre)
+    private IntBuffer indice;
+    private int mascaraIndice;
+    
+    public AlmacenCuentasOffHeap() {
+        this.bloquesRegistros = new ArrayList<>();
+        this.bloquesNombres = new ArrayList<>();
+        this.cantidad = 0;
+        this.indice = crearIndice(TAMANIO_INDICE_INICIAL);
+        this.mascaraIndice = TAMANIO_INDICE_INICIAL - 1;
+    }
+    
+    @Override
+    public void agregar(String dni, String nombreCompleto, BigDecimal saldo) {
+        int numeroDni = Validador.dniANumero(dni);
+        if (numeroDni < 0) {
+            throw new IllegalArgumentException("DNI no válido: " + dni);
+        }
+        
+        // Guardar el nombre en el área de texto
+        byte[] nombre = nombreCompleto.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bloqueNombres = bloquesNombres.isEmpty() ? null : bloquesNombres.get(bloquesNombres.size() - 1);
+        if (bloqueNombres == null || bloqueNombres.remaining() < nombre.length) {
+            bloqueNombres = ByteBuffer.allocateDirect(Math.max(TAMANIO_BLOQUE_NOMBRES, nombre.length));
+            bloquesNombres.add(bloqueNombres);
+        }
+        int inicioNombre = bloqueNombres.position();
+        bloqueNombres.put(nombre);
+        
+        // Escribir el registro
+        int registro = cantidad;
+        if (registro % REGISTROS_POR_BLOQUE == 0) {
+            bloquesRegistros.add(ByteBuffer.allocateDirect(REGISTROS_POR_BLOQUE * TAMANIO_REGISTRO));
+        }
+        ByteBuffer bloque = bloqueDe(registro);
+        int base = posicionEnBloque(registro);
+        bloque.putInt(base + POS_DNI, numeroDni);
+        bloque.putInt(base + POS_BLOQUE_NOMBRE, bloquesNombres.size() - 1);
+        bloque.putInt(base + POS_INICIO_NOMBRE, inicioNombre);
+        bloque.putInt(base + POS_LONGITUD_NOMBRE, nombre.length);
+        bloque.putLong(base + POS_SALDO, Validador.montoACentimos(saldo));
+        cantidad++;
+        
+        // Indexar, manteniendo la tabla como máximo a la mitad
+        if (cantidad * 2 > mascaraIndice + 1) {
+            redimensionarIndice();
+        } else {
+            insertarEnIndice(indice, mascaraIndice, numeroDni, registro);
+        }
+    }
+    
+    @Override
+    public Usuario buscar(String dni) {
+        int registro = buscarRegistro(dni);
+        if (registro < 0) {
+            return null;
+        }
+        return crearUsuario(registro, dni);
+    }
+    
+    @Override
+    public boolean existe(String dni) {
+        return buscarRegistro(dni) >= 0;
+    }
+    
+    @Override
+    public void actualizarSaldo(String dni, BigDecimal saldo) {
+        int registro = buscarRegistro(dni);
+        if (registro >= 0) {
+            bloqueDe(registro).putLong(posicionEnBloque(registro) + POS_SALDO, 
+                    Validador.montoACentimos(saldo));
+        }
+    }
+    
+    @Override
+    public long obtenerSaldoCentimos(String dni) {
+        int registro = buscarRegistro(dni);
+        if (registro < 0) {
+            return SIN_CUENTA;
+        }
+        return bloqueDe(registro).getLong(posicionEnBloque(registro) + POS_SALDO);
+    }
+    
+    @Override
+    public void actualizarSaldoCentimos(String dni, long saldoCentimos) {
+        int registro = buscarRegistro(dni);
+        if (registro >= 0) {
+            bloqueDe(registro).putLong(posicionEnBloque(registro) + POS_SALDO, saldoCentimos);
+        }
+    }
+    
+    @Override
+    public int contar() {
+        return cantidad;
+    }
+    
+    @Override
+    public List<Usuario> listar() {
+        List<Usuario> usuarios = new ArrayList<>(cantidad);
+        for (int registro = 0; registro < cantidad; registro++) {
+            int numeroDni = bloqueDe(registro).getInt(posicionEnBloque(registro) + POS_DNI);
+            usuarios.add(crearUsuario(registro, formatearDni(numeroDni)));
+        }
+        return usuarios;
+    }
+    
+    @Override
+    public void copiarSaldosCentimos(long[] destino) {
+        for (int registro = 0; registro < destino.length; registro++) {
+            destino[registro] = bloqueDe(registro).getLong(posicionEnBloque(registro) + POS_SALDO);
+        }
+    }
+    
+    @Override
+    public String[] copiarDnis(int cantidad) {
+        String[] dnis = new String[cantidad];
+        for (int registro = 0; registro < cantidad; registro++) {
+            dnis[registro] = formatearDni(bloqueDe(registro).getInt(posicionEnBloque(registro) + POS_DNI));
+        }
+        return dnis;
+    }
+    
+    /**
+     * Retorna el número de registro del DNI o -1 si no existe.
+     */
+    private int buscarRegistro(String dni) {
+        int numeroDni = Validador.dniANumero(dni);
+        if (numeroDni < 0) {
+            return -1;
+        }
+        
+        int posicion = Validador.mezclarDni(numeroDni) & mascaraIndice;
+        while (true) {
+            int valor = indice.get(posicion);
+            if (valor == 0) {
+                return -1;
+            }
+            int registro = valor - 1;
+            if (bloqueDe(registro).getInt(posicionEnBloque(registro) + POS_DNI) == numeroDni) {
+                return registro;
+            }
+            posicion = (posicion + 1) & mascaraIndice;
+        }
+    }
+    
+    /**
+     * Construye un Usuario a partir de un registro. Se recibe el DNI ya como
+     * texto para no formatearlo de nuevo en cada búsqueda.
+     */
+    private Usuario crearUsuario(int registro, String dni) {
+        ByteBuffer bloque = bloqueDe(registro);
+        int base = posicionEnBloque(registro);
+        
+        ByteBuffer bloqueNombres = bloquesNombres.get(bloque.getInt(base + POS_BLOQUE_NOMBRE));
+        byte[] nombre = new byte[bloque.getInt(base + POS_LONGITUD_NOMBRE)];
+        bloqueNombres.get(bloque.getInt(base + POS_INICIO_NOMBRE), nombre);
+        
+        return new Usuario(
+                dni,
+                new String(nombre, StandardCharsets.UTF_8),
+                BigDecimal.valueOf(bloque.getLong(base + POS_SALDO), 2));
+    }
+    
+    /**
+     * Escribe el DNI con 8 dígitos (con ceros a la izquierda) sin usar String.format.
+     */
+    private static String formatearDni(int numeroDni) {
+        char[] digitos = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            digitos[i] = (char) ('0' + numeroDni % 10);
+            numeroDni /= 10;
+        }
+        return new String(digitos);
+    }
+    
+    /**
+     * Duplica el tamaño del índice y vuelve a insertar todos los registros.
+     */
+    private void redimensionarIndice() {
+        int tamanio = (mascaraIndice + 1) * 2;
+        IntBuffer nuevoIndice = crearIndice(tamanio);
+        for (int registro = 0; registro < cantidad; registro++) {
+            int numeroDni = bloqueDe(registro).getInt(posicionEnBloque(registro) + POS_DNI);
+            insertarEnIndice(nuevoIndice, tamanio - 1, numeroDni, registro);
+        }
+        indice = nuevoIndice;
+        mascaraIndice = tamanio - 1;
+    }
+    
+    private static void insertarEnIndice(IntBuffer tabla, int mascara, int numeroDni, int registro) {
+        int posicion = Validador.mezclarDni(numeroDni) & mascara;
+        while (tabla.get(posicion) != 0) {
+            posicion = (posicion + 1) & mascara;
+        }
+        tabla.put(posicion, registro + 1);
+    }
+    
+    private static IntBuffer crearIndice(int tamanio) {
+        return ByteBuffer.allocateDirect(tamanio * Integer.BYTES).asIntBuffer();
+    }
+    
+    private ByteBuffer bloqueDe(int registro) {
+        return bloquesRegistros.get(registro / REGISTROS_POR_BLOQUE);
+    }
+    
+    private static int posicionEnBloque(int registro) {
+        return (registro % REGISTROS_POR_BLOQUE) * TAMANIO_REGISTRO;
+    }
+}
@@ -0,0 +1,226 @@
+package service;
+
+import model.Descuadre;
+import model.ResultadoConciliacion;
+import model.Transaccion;
+import util.IndiceDni;
+import util.Validador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifica que el saldo de cada cuenta coincida con la suma de sus
+ * movimientos en el libro mayor.
+ * 
+ * Trabaja sobre una instantánea consistente, así que puede ejecutarse
+ * mientras el sistema sigue atendiendo operaciones. El recálculo es paralelo
+ * y particionado por DNI: cada DNI tiene un único hilo dueño (según su hash)
+ * y las cuentas de cada dueño ocupan un tramo contiguo del acumulador. Cada
+ * hilo recorre el libro, acumula en céntimos (long) solo los movimientos de
+ * sus DNIs y compara esas cuentas, así que entre todos los hilos hay un único
+ * acumulador del tamaño de las cuentas.
+ */
+public class ConciliacionService {
+    
+    private TransaccionService transaccionService;
+    private int paralelismo;
+    
+    public ConciliacionService(TransaccionService transaccionService) {
+        this(transaccionService, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public ConciliacionService(TransaccionService transaccionService, int paralelismo) {
+        if (paralelismo < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1.");
+        }
+        this.transaccionService = transaccionService;
+        this.paralelismo = paralelismo;
+    }
+    
+    /**
+     * Concilia todas las cuentas contra el libro mayor.
+     */
+    public ResultadoConciliacion conciliar() {
+        long inicio = System.nanoTime();
+        InstantaneaCuentas instantanea = transaccionService.tomarInstantanea();
+        LibroMayor libro = transaccionService.getLibroMayor();
+        int cuentas = instantanea.getCuentas();
+        long transacciones = instantanea.getTransacciones();
+        
+        // Las cuentas se agrupan por hilo dueño: tramo [inicios[p], inicios[p + 1])
+        int[] inicios = new int[paralelismo + 1];
+        int[] cuentaEnPosicion = new int[cuentas];
+        IndiceDni posiciones = agruparPorDueno(instantanea, inicios, cuentaEnPosicion);
+        long[] calculados = new long[cuentas];
+        
+        ExecutorService hilos = Executors.newFixedThreadPool(paralelismo);
+        try {
+            List<Future<RangoConciliado>> rangos = new ArrayList<>();
+            for (int p = 0; p < paralelismo; p++) {
+                int dueno = p;
+                Callable<RangoConciliado> conciliacion = () -> conciliarRango(libro, transacciones, instantanea,
+                        posiciones, cuentaEnPosicion, calculados, inicios[dueno], inicios[dueno + 1], dueno);
+                rangos.add(hilos.submit(conciliacion));
+            }
+            List<Descuadre> descuadres = new ArrayList<>();
+            long movimientosSinCuenta = 0;
+            for (Future<RangoConciliado> rango : rangos) {
+                RangoConciliado conciliado = rango.get();
+                descuadres.addAll(conciliado.descuadres);
+                movimientosSinCuenta += conciliado.movimientosSinCuenta;
+            }
+            
+            long duracionMilis = (System.nanoTime() - inicio) / 1_000_000;
+            return new ResultadoConciliacion(cuentas, transacciones, movimientosSinCuenta,
+                    descuadres, duracionMilis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La conciliación fue interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error durante la conciliación.", e.getCause());
+        } finally {
+            hilos.shutdown();
+        }
+    }
+    
+    /**
+     * Ejecuta la conciliación y muestra el resultado en consola.
+     */
+    public void mostrarConciliacion() {
+        ResultadoConciliacion resultado = conciliar();
+        
+        System.out.println("\n========== CONCILIACIÓN DE SALDOS ==========");
+        System.out.println("Cuentas verificadas: " + resultado.getCuentasVerificadas());
+        System.out.println("Transacciones procesadas: " + resultado.getTransaccionesProcesadas());
+        System.out.println("Duración: " + resultado.getDuracionMilis() + " ms");
+        
+        if (resultado.getMovimientosSinCuenta() > 0) {
+            Validador.mostrarError("Movimientos de DNIs sin cuenta: " + resultado.getMovimientosSinCuenta());
+        }
+        for (Descuadre descuadre : resultado.getDescuadres()) {
+            System.out.println(descuadre);
+        }
+        
+        if (resultado.estaConciliado()) {
+            Validador.mostrarExito("Todos los saldos coinciden con el libro mayor.");
+        } else {
+            Validador.mostrarError("Cuentas con descuadre: " + resultado.getDescuadres().size());
+        }
+    }
+    
+    /**
+     * Recorre las primeras transacciones del libro acumulando solo los movimientos
+     * de los DNIs del hilo dueño dado, cuyas cuentas ocupan las posiciones
+     * [desde, hasta). Cada hilo escribe solo su tramo de calculados.
+     */
+    private RangoConciliado conciliarRango(LibroMayor libro, long transacciones, InstantaneaCuentas instantanea,
+                                           IndiceDni posiciones, int[] cuentaEnPosicion, long[] calculados,
+                                           int desde, int hasta, int dueno) {
+        long[] sinCuenta = new long[1];
+        libro.recorrer(0, transacciones, t -> {
+            long monto = t.getMontoCentimos();
+            int origen = t.getNumeroDniOrigen();
+            if (duenoDe(origen) == dueno) {
+                int posicion = posiciones.buscar(origen);
+                if (posicion < 0) {
+                    sinCuenta[0]++;
+                }
+                switch (t.getTipo()) {
+                    case Transaccion.TIPO_APERTURA:
+                    case Transaccion.TIPO_DEPOSITO:
+                    case Transaccion.TIPO_INTERES:
+                        if (posicion >= 0) {
+                            calculados[posicion] += monto;
+                        }
+                        break;
+                    case Transaccion.TIPO_RETIRO:
+                    case Transaccion.TIPO_COMISION:
+                    case Transaccion.TIPO_TRANSFERENCIA:
+                        if (posicion >= 0) {
+                            calculados[posicion] -= monto;
+                        }
+                        break;
+                    default:
+                        sinCuenta[0]++;
+                }
+            }
+            
+            // El destino de una transferencia lo acumula el dueño de ese DNI
+            if (t.getTipo().equals(Transaccion.TIPO_TRANSFERENCIA)) {
+                int destino = t.getNumeroDniDestino();
+                if (duenoDe(destino) == dueno) {
+                    int posicion = posiciones.buscar(destino);
+                    if (posicion < 0) {
+                        sinCuenta[0]++;
+                    } else {
+                        calculados[posicion] += monto;
+                    }
+                }
+            }
+        });
+        
+        List<Descuadre> descuadres = new ArrayList<>();
+        for (int posicion = desde; posicion < hasta; posicion++) {
+            int cuenta = cuentaEnPosicion[posicion];
+            long registrado = instantanea.getSaldoCentimos(cuenta);
+            if (calculados[posicion] != registrado) {
+                descuadres.add(new Descuadre(instantanea.getDni(cuenta), registrado, calculados[posicion]));
+            }
+        }
+        return new RangoConciliado(descuadres, sinCuenta[0]);
+    }
+    
+    /**
+     * Ordena las cuentas por hilo dueño (conteo y luego colocación, sin comparar)
+     * y retorna el índice DNI -> posición. Llena inicios con el comienzo del
+     * tramo de cada dueño y cuentaEnPosicion con la cuenta de la instantánea.
+     */
+    private IndiceDni agruparPorDueno(InstantaneaCuentas instantanea, int[] inicios, int[] cuentaEnPosicion) {
+        int cuentas = instantanea.getCuentas();
+        int[] numerosDni = new int[cuentas];
+        for (int cuenta = 0; cuenta < cuentas; cuenta++) {
+            numerosDni[cuenta] = Validador.dniANumero(instantanea.getDni(cuenta));
+            inicios[duenoDe(numerosDni[cuenta]) + 1]++;
+        }
+        for (int p = 0; p < paralelismo; p++) {
+            inicios[p + 1] += inicios[p];
+        }
+        
+        int[] siguiente = Arrays.copyOf(inicios, paralelismo);
+        IndiceDni posiciones = new IndiceDni(cuentas);
+        for (int cuenta = 0; cuenta < cuentas; cuenta++) {
+            int posicion = siguiente[duenoDe(numerosDni[cuenta])]++;
+            cuentaEnPosicion[posicion] = cuenta;
+            posiciones.agregar(numerosDni[cuenta], posicion);
+        }
+        return posiciones;
+    }
+    
+    /**
+     * Retorna el hilo dueño de un DNI (entre 0 y paralelismo - 1) a partir de su hash.
+     */
+    private int duenoDe(int numeroDni) {
+        return (int) (((Validador.mezclarDni(numeroDni) & 0xFFFFFFFFL) * paralelismo) >>> 32);
+    }
+    
+    /**
+     * Descuadres y movimientos sin cuenta de un rango de DNIs.
+     */
+    private static class RangoConciliado {
+        
+        private final List<Descuadre> descuadres;
+        private final long movimientosSinCuenta;
+        
+        RangoConciliado(List<Descuadre> descuadres, long movimientosSinCuenta) {
+            this.descuadres = descuadres;
+            this.movimientosSinCuenta = movimientosSinCuenta;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package service;
+
+/**
+ * Copia consistente de los saldos de todas las cuentas en un instante.
+ * Los saldos corresponden exactamente a las primeras getTransacciones()
+ * transacciones del libro mayor.
+ */
+public class InstantaneaCuentas {
+    
+    private String[] dnis;
+    private long[] saldosCentimos;
+    private long transacciones;
+    
+    public InstantaneaCuentas(String[] dnis, long[] saldosCentimos, long transacciones) {
+        this.dnis = dnis;
+        this.saldosCentimos = saldosCentimos;
+        this.transacciones = transacciones;
+    }
+    
+    // Getters
+    public int getCuentas() {
+        return dnis.length;
+    }
+    
+    public String getDni(int cuenta) {
+        return dnis[cuenta];
+    }
+    
+    public long getSaldoCentimos(int cuenta) {
+        return saldosCentimos[cuenta];
+    }
+    
+    public long getTransacciones() {
+        return transacciones;
+    }
+}
@@ -0,0 +1,591 @@
+package service;
+
+import model.Transaccion;
+import util.Validador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Libro mayor: registro de solo escritura al final de todas las transacciones.
+ * Las transacciones se guardan en bloques de tamaño fijo que nunca se mueven,
+ * así que cualquier hilo puede leer las posiciones menores a tamanio()
+ * sin bloquear a quien registra nuevas transacciones.
+ *
+ * Con una PoliticaRetencion, un hilo en segundo plano pasa los bloques
+ * completos más antiguos a segmentos comprimidos en disco (java.util.zip)
+ * y los libera de la memoria. Las lecturas combinan ambos niveles sin que
+ * quien consulta lo note; los segmentos leídos se guardan en una caché pequeña.
+ * Junto a cada segmento se escribe un resumen con los DNIs que aparecen en él
+ * (enteros ordenados, mapeados en memoria fuera del heap), para que las
+ * consultas por usuario no descompriman segmentos que no lo incluyen.
+ */
+public class LibroMayor {
+    
+    /** Espera máxima entre reintentos cuando falla la escritura de segmentos. */
+    public static final long ESPERA_MAXIMA_REINTENTO_MS = 60_000;
+    
+    private final int bitsBloque;
+    private final int tamanioBloque;
+    private final int mascaraBloque;
+    
+    private volatile Transaccion[][] bloques;
+    private volatile long tamanio;
+    
+    // Retención en disco (null = todo en memoria)
+    private final PoliticaRetencion politica;
+    private final Path directorioSegmentos;
+    private final Map<Integer, Transaccion[]> cacheSegmentos;
+    private volatile IntBuffer[] resumenesSegmentos;
+    private volatile int bloquesEnDisco;
+    private Thread hiloRetencion;
+    private volatile IOException errorRetencion;
+    private volatile int fallosRetencion;
+    
+    public LibroMayor() {
+        this(null);
+    }
+    
+    public LibroMayor(PoliticaRetencion politica) {
+        int transaccionesPorBloque = politica == null
+                ? PoliticaRetencion.TRANSACCIONES_POR_SEGMENTO_DEFECTO
+                : politica.getTransaccionesPorSegmento();
+        this.bitsBloque = Integer.numberOfTrailingZeros(transaccionesPorBloque);
+        this.tamanioBloque = transaccionesPorBloque;
+        this.mascaraBloque = transaccionesPorBloque - 1;
+        this.bloques = new Transaccion[16][];
+        this.tamanio = 0;
+        this.politica = politica;
+        this.bloquesEnDisco = 0;
+        
+        if (politica == null) {
+            this.directorioSegmentos = null;
+            this.cacheSegmentos = null;
+            this.resumenesSegmentos = null;
+            return;
+        }
+        
+        // Cada libro usa su propio subdirectorio para no mezclar segmentos
+        try {
+            Files.createDirectories(politica.getDirectorio());
+            this.directorioSegmentos = Files.createTempDirectory(politica.getDirectorio(), "libro-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de segmentos.", e);
+        }
+        this.cacheSegmentos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Transaccion[]> eldest) {
+                return size() > politica.getSegmentosEnCache();
+            }
+        };
+        this.resumenesSegmentos = new IntBuffer[16];
+        this.hiloRetencion = new Thread(this::ejecutarRetencion, "retencion-libro");
+        this.hiloRetencion.setDaemon(true);
+        this.hiloRetencion.start();
+    }
+    
+    /**
+     * Agrega una transacción al final del libro.
+     */
+    public synchronized void registrar(Transaccion transaccion) {
+        long posicion = tamanio;
+        int bloque = (int) (posicion >>> bitsBloque);
+        
+        Transaccion[][] actuales = bloques;
+        if (bloque == actuales.length) {
+            Transaccion[][] ampliados = new Transaccion[actuales.length * 2][];
+            System.arraycopy(actuales, 0, ampliados, 0, actuales.length);
+            actuales = ampliados;
+        }
+        if (actuales[bloque] == null) {
+            actuales[bloque] = new Transaccion[tamanioBloque];
+        }
+        actuales[bloque][(int) (posicion & mascaraBloque)] = transaccion;
+        
+        // Publicar primero los bloques y luego el tamaño
+        bloques = actuales;
+        tamanio = posicion + 1;
+    }
+    
+    /**
+     * Agrega varias transacciones al final del libro, en orden, con un solo bloqueo.
+     */
+    public synchronized void registrarTodas(List<Transaccion> transacciones) {
+        for (Transaccion transaccion : transacciones) {
+            registrar(transaccion);
+        }
+    }
+    
+    /**
+     * Retorna la cantidad de transacciones registradas.
+     */
+    public long tamanio() {
+        return tamanio;
+    }
+    
+    /**
+     * Retorna cuántas de las transacciones están en segmentos en disco.
+     */
+    public long transaccionesEnDisco() {
+        return (long) bloquesEnDisco << bitsBloque;
+    }
+    
+    /**
+     * Retorna el último error de la retención en disco, o null si la última
+     * pasada terminó bien (o no hay retención).
+     */
+    public IOException getErrorRetencion() {
+        return errorRetencion;
+    }
+    
+    /**
+     * Retorna cuántas pasadas seguidas de la retención han fallado.
+     */
+    public int getFallosRetencion() {
+        return fallosRetencion;
+    }
+    
+    /**
+     * Retorna la transacción en la posición dada (menor a tamanio()).
+     */
+    public Transaccion obtener(long posicion) {
+        return bloque((int) (posicion >>> bitsBloque))[(int) (posicion & mascaraBloque)];
+    }
+    
+    /**
+     * Aplica la acción a las transacciones de las posiciones [desde, hasta),
+     * en orden. Cada segmento en disco se lee una sola vez.
+     */
+    public void recorrer(long desde, long hasta, Consumer<Transaccion> accion) {
+        long posicion = desde;
+        while (posicion < hasta) {
+            Transaccion[] bloque = bloque((int) (posicion >>> bitsBloque));
+            int inicio = (int) (posicion & mascaraBloque);
+            int fin = (int) Math.min(tamanioBloque, inicio + (hasta - posicion));
+            for (int i = inicio; i < fin; i++) {
+                accion.accept(bloque[i]);
+            }
+            posicion += fin - inicio;
+        }
+    }
+    
+    /**
+     * Retorna una copia de todas las transacciones.
+     */
+    public List<Transaccion> copiar() {
+        long total = tamanio;
+        List<Transaccion> copia = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE - 8));
+        recorrer(0, total, copia::add);
+        return copia;
+    }
+    
+    /**
+     * Retorna las transacciones en las que participa un usuario.
+     */
+    public List<Transaccion> buscarPorUsuario(String dni) {
+        List<Transaccion> resultado = new ArrayList<>();
+        int numeroDni = Validador.dniANumero(dni);
+        long total = tamanio;
+        long posicion = 0;
+        while (posicion < total) {
+            int numero = (int) (posicion >>> bitsBloque);
+            long finBloque = Math.min(total, (long) (numero + 1) << bitsBloque);
+            
+            if (numero < bloquesEnDisco) {
+                // Un segmento solo se lee si su resumen incluye el DNI
+                if (resumenIncluye(numero, numeroDni)) {
+                    buscarEnSegmento(numero, numeroDni, dni, resultado);
+                }
+            } else {
+                recorrer(posicion, finBloque, t -> {
+                    if (participa(t, dni)) {
+                        resultado.add(t);
+                    }
+                });
+            }
+            posicion = finBloque;
+        }
+        return resultado;
+    }
+    
+    /**
+     * Detiene el hilo de retención y borra los segmentos en disco.
+     * Después de cerrar, el libro no debe usarse.
+     */
+    public void cerrar() {
+        if (hiloRetencion == null) {
+            return;
+        }
+        hiloRetencion.interrupt();
+        try {
+            hiloRetencion.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        try (DirectoryStream<Path> segmentos = Files.newDirectoryStream(directorioSegmentos)) {
+            for (Path segmento : segmentos) {
+                Files.deleteIfExists(segmento);
+            }
+            Files.deleteIfExists(directorioSegmentos);
+        } catch (IOException e) {
+            Validador.mostrarError("No se pudieron borrar los segmentos del libro: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Retorna el bloque con el número dado, desde memoria o desde disco.
+     */
+    private Transaccion[] bloque(int numero) {
+        if (numero >= bloquesEnDisco) {
+            Transaccion[] enMemoria = bloques[numero];
+            if (enMemoria != null) {
+                return enMemoria;
+            }
+        }
+        return leerSegmento(numero);
+    }
+    
+    /**
+     * Bucle del hilo de retención. Si falla el disco, se reintenta duplicando
+     * la espera hasta ESPERA_MAXIMA_REINTENTO_MS; mientras tanto las
+     * transacciones simplemente quedan en memoria.
+     */
+    private void ejecutarRetencion() {
+        long intervalo = politica.getIntervaloRevision().toMillis();
+        long espera = intervalo;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                moverBloquesFrios();
+                if (errorRetencion != null) {
+                    Validador.mostrarInfo("Retención del libro reanudada tras " + fallosRetencion + " fallos.");
+                    errorRetencion = null;
+                    fallosRetencion = 0;
+                }
+                espera = intervalo;
+            } catch (IOException | UncheckedIOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                errorRetencion = e instanceof UncheckedIOException
+                        ? ((UncheckedIOException) e).getCause()
+                        : (IOException) e;
+                fallosRetencion++;
+                if (fallosRetencion == 1) {
+                    Validador.mostrarError("Retención del libro en pausa, se reintentará: " + e.getMessage());
+                }
+                espera = Math.min(Math.max(espera, 1) * 2, Math.max(intervalo, ESPERA_MAXIMA_REINTENTO_MS));
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Pasa a disco, en orden, los bloques completos que la política ya no mantiene en memoria.
+     */
+    private void moverBloquesFrios() throws IOException {
+        long bloquesEnMemoriaPermitidos = politica.getTransaccionesEnMemoria() >>> bitsBloque;
+        
+        while (!Thread.currentThread().isInterrupted()) {
+            int numero = bloquesEnDisco;
+            long bloquesCompletos = tamanio >>> bitsBloque;
+            if (numero >= bloquesCompletos) {
+                return;
+            }
+            
+            Transaccion[] bloque = bloques[numero];
+            boolean excedeMemoria = bloquesCompletos - numero > bloquesEnMemoriaPermitidos;
+            boolean esAntiguo = politica.getEdadMaxima() != null && bloque[mascaraBloque].getFechaHora()
+                    .plus(politica.getEdadMaxima()).isBefore(LocalDateTime.now());
+            if (!excedeMemoria && !esAntiguo) {
+                return;
+            }
+            
+            IntBuffer resumen = escribirResumen(numero, bloque);
+            escribirSegmento(numero, bloque);
+            
+            // Publicar el resumen antes que el bloque en disco
+            IntBuffer[] resumenes = resumenesSegmentos;
+            if (numero == resumenes.length) {
+                resumenes = Arrays.copyOf(resumenes, resumenes.length * 2);
+            }
+            resumenes[numero] = resumen;
+            resumenesSegmentos = resumenes;
+            bloquesEnDisco = numero + 1;
+            synchronized (this) {
+                bloques[numero] = null;
+            }
+        }
+    }
+    
+    private Path rutaSegmento(int numero) {
+        return directorioSegmentos.resolve(String.format("segmento-%08d.bin", numero));
+    }
+    
+    /**
+     * Escribe un bloque comprimido. Se escribe a un temporal y se renombra,
+     * para que nunca exista un segmento a medio escribir.
+     *
+     * Cada registro empieza con los DNIs como enteros y el largo del resto,
+     * así una búsqueda por usuario salta los registros ajenos sin decodificarlos.
+     */
+    private void escribirSegmento(int numero, Transaccion[] bloque) throws IOException {
+        Path temporal = directorioSegmentos.resolve("segmento.tmp");
+        Deflater compresor = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream resto = new ByteArrayOutputStream(256);
+        DataOutputStream salidaResto = new DataOutputStream(resto);
+        try (DataOutputStream salida = new DataOutputStream(new DeflaterOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16), compresor, 1 << 16))) {
+            for (Transaccion t : bloque) {
+                resto.reset();
+                salidaResto.writeUTF(t.getTipo());
+                byte[] montoSinEscala = t.getMonto().unscaledValue().toByteArray();
+                salidaResto.writeInt(t.getMonto().scale());
+                salidaResto.writeInt(montoSinEscala.length);
+                salidaResto.write(montoSinEscala);
+                salidaResto.writeLong(t.getFechaHora().toEpochSecond(ZoneOffset.UTC));
+                salidaResto.writeInt(t.getFechaHora().getNano());
+                salidaResto.writeUTF(t.getDniOrigen());
+                if (t.getDniDestino() != null) {
+                    salidaResto.writeUTF(t.getDniDestino());
+                }
+                
+                salida.writeInt(t.getNumeroDniOrigen());
+                salida.writeBoolean(t.getDniDestino() != null);
+                if (t.getDniDestino() != null) {
+                    salida.writeInt(t.getNumeroDniDestino());
+                }
+                salida.writeShort(resto.size());
+                resto.writeTo(salida);
+            }
+        } finally {
+            compresor.end();
+        }
+        Files.move(temporal, rutaSegmento(numero), StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Escribe los DNIs (como enteros, ordenados y sin repetir) de un bloque y
+     * retorna el archivo mapeado en memoria. Los DNIs no numéricos se anotan como -1.
+     */
+    private IntBuffer escribirResumen(int numero, Transaccion[] bloque) throws IOException {
+        int[] dnis = new int[bloque.length * 2];
+        int cantidad = 0;
+        for (Transaccion t : bloque) {
+            dnis[cantidad++] = t.getNumeroDniOrigen();
+            if (t.getDniDestino() != null) {
+                dnis[cantidad++] = t.getNumeroDniDestino();
+            }
+        }
+        Arrays.sort(dnis, 0, cantidad);
+        
+        ByteBuffer contenido = ByteBuffer.allocate(cantidad * Integer.BYTES);
+        int anterior = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (i == 0 || dnis[i] != anterior) {
+                contenido.putInt(dnis[i]);
+                anterior = dnis[i];
+            }
+        }
+        contenido.flip();
+        
+        Path temporal = directorioSegmentos.resolve("resumen.tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (contenido.hasRemaining()) {
+                canal.write(contenido);
+            }
+        }
+        Path ruta = directorioSegmentos.resolve(String.format("segmento-%08d.dni", numero));
+        Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE);
+        
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).asIntBuffer();
+        }
+    }
+    
+    /**
+     * Indica si el resumen del segmento incluye el DNI (búsqueda binaria).
+     */
+    private boolean resumenIncluye(int numero, int numeroDni) {
+        IntBuffer resumen = resumenesSegmentos[numero];
+        int desde = 0;
+        int hasta = resumen.limit() - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int valor = resumen.get(medio);
+            if (valor < numeroDni) {
+                desde = medio + 1;
+            } else if (valor > numeroDni) {
+                hasta = medio - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Lee un segmento de disco, usando la caché si ya estaba descomprimido.
+     */
+    private Transaccion[] leerSegmento(int numero) {
+        synchronized (cacheSegmentos) {
+            Transaccion[] enCache = cacheSegmentos.get(numero);
+            if (enCache != null) {
+                return enCache;
+            }
+        }
+        
+        // Se descomprime fuera del bloqueo para no frenar a otros lectores
+        Transaccion[] bloque = new Transaccion[tamanioBloque];
+        Inflater descompresor = new Inflater();
+        try (DataInputStream entrada = abrirSegmento(numero, descompresor)) {
+            for (int i = 0; i < tamanioBloque; i++) {
+                entrada.readInt();
+                boolean tieneDestino = entrada.readBoolean();
+                if (tieneDestino) {
+                    entrada.readInt();
+                }
+                entrada.readUnsignedShort();
+                bloque[i] = leerResto(entrada, tieneDestino);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + numero + " del libro.", e);
+        } finally {
+            descompresor.end();
+        }
+        
+        synchronized (cacheSegmentos) {
+            cacheSegmentos.put(numero, bloque);
+        }
+        return bloque;
+    }
+    
+    /**
+     * Agrega al resultado las transacciones de un segmento en las que participa el DNI.
+     * Si el segmento no está en caché, solo se decodifican los registros que coinciden
+     * y el segmento no se guarda en la caché.
+     */
+    private void buscarEnSegmento(int numero, int numeroDni, String dni, List<Transaccion> resultado) {
+        Transaccion[] enCache;
+        synchronized (cacheSegmentos) {
+            enCache = cacheSegmentos.get(numero);
+        }
+        if (enCache != null) {
+            for (Transaccion t : enCache) {
+                if (participa(t, dni)) {
+                    resultado.add(t);
+                }
+            }
+            return;
+        }
+        
+        Inflater descompresor = new Inflater();
+        try (DataInputStream entrada = abrirSegmento(numero, descompresor)) {
+            for (int i = 0; i < tamanioBloque; i++) {
+                boolean coincide = entrada.readInt() == numeroDni;
+                boolean tieneDestino = entrada.readBoolean();
+                if (tieneDestino && entrada.readInt() == numeroDni) {
+                    coincide = true;
+                }
+                int largoResto = entrada.readUnsignedShort();
+                if (!coincide) {
+                    if (entrada.skipBytes(largoResto) != largoResto) {
+                        throw new EOFException();
+                    }
+                    continue;
+                }
+                
+                // Los DNIs no numéricos comparten el -1, así que se confirma con el texto
+                Transaccion t = leerResto(entrada, tieneDestino);
+                if (numeroDni >= 0 || participa(t, dni)) {
+                    resultado.add(t);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + numero + " del libro.", e);
+        } finally {
+            descompresor.end();
+        }
+    }
+    
+    private DataInputStream abrirSegmento(int numero, Inflater descompresor) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new InflaterInputStream(
+                Files.newInputStream(rutaSegmento(numero)), descompresor, 1 << 16), 1 << 16));
+    }
+    
+    /**
+     * Decodifica la parte de un registro que sigue a los DNIs numéricos y su largo.
+     */
+    private static Transaccion leerResto(DataInputStream entrada, boolean tieneDestino) throws IOException {
+        String tipo = tipoCanonico(entrada.readUTF());
+        int escala = entrada.readInt();
+        byte[] montoSinEscala = new byte[entrada.readInt()];
+        entrada.readFully(montoSinEscala);
+        LocalDateTime fechaHora = LocalDateTime.ofEpochSecond(
+                entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+        String dniOrigen = entrada.readUTF();
+        String dniDestino = tieneDestino ? entrada.readUTF() : null;
+        return new Transaccion(tipo, new BigDecimal(new BigInteger(montoSinEscala), escala),
+                dniOrigen, dniDestino, fechaHora);
+    }
+    
+    private static boolean participa(Transaccion t, String dni) {
+        return t.getDniOrigen().equals(dni) ||
+               (t.getDniDestino() != null && t.getDniDestino().equals(dni));
+    }
+    
+    /**
+     * Retorna la constante del tipo leído, para no guardar una copia por transacción.
+     */
+    private static String tipoCanonico(String tipo) {
+        switch (tipo) {
+            case Transaccion.TIPO_APERTURA:
+                return Transaccion.TIPO_APERTURA;
+            case Transaccion.TIPO_DEPOSITO:
+                return Transaccion.TIPO_DEPOSITO;
+            case Transaccion.TIPO_RETIRO:
+                return Transaccion.TIPO_RETIRO;
+            case Transaccion.TIPO_TRANSFERENCIA:
+                return Transaccion.TIPO_TRANSFERENCIA;
+            case Transaccion.TIPO_INTERES:
+                return Transaccion.TIPO_INTERES;
+            case Transaccion.TIPO_COMISION:
+                return Transaccion.TIPO_COMISION;
+            default:
+                return tipo;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package service;
+
+import util.Validador;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aplica límites de velocidad por cuenta (DNI) sobre retiros y transferencias.
+ * Cada cuenta ocupa una ranura de una tabla de direccionamiento abierto y su
+ * estado se guarda empaquetado en un long, actualizado con compareAndSet:
+ * no hay bloqueos ni se crean objetos en cada verificación.
+ *
+ * La tabla crece sola: cuando una tabla llega a la mitad de su capacidad, las
+ * cuentas nuevas van a otra del doble de tamaño. Las ranuras nunca se mueven,
+ * así que crecer no requiere bloquear las verificaciones. Si aun así no hay
+ * lugar (o el DNI no es válido), la operación se permite: el limitador nunca
+ * rechaza por falta de capacidad.
+ */
+public class LimitadorTransacciones {
+    
+    // Motivos de rechazo (null significa operación permitida)
+    public static final String MOTIVO_LIMITE_RETIROS = 
+            "Se superó el límite de retiros por minuto.";
+    public static final String MOTIVO_LIMITE_TRANSFERENCIA_DIARIA = 
+            "Se superó el monto máximo transferible por día.";
+    
+    // Un valor de 0 en una regla desactiva ese límite
+    public static final int SIN_LIMITE = 0;
+    
+    // Valores por defecto
+    public static final int RETIROS_POR_MINUTO_DEFECTO = 10;
+    public static final long TRANSFERENCIA_DIARIA_DEFECTO_CENTIMOS = 5_000_000L;   // S/ 50,000.00
+    public static final int CAPACIDAD_DEFECTO = 1 << 16;
+    
+    // Tope de ranuras de todas las tablas juntas (32 bytes cada una)
+    private static final int MAX_RANURAS = 1 << 26;
+    
+    private static final long MILIS_POR_MINUTO = 60_000L;
+    private static final long MILIS_POR_DIA = 86_400_000L;
+    
+    // Retiros: [minuto (32 bits) | conteo minuto previo (16) | conteo minuto actual (16)]
+    private static final int MAX_RETIROS_POR_MINUTO = 0xFFFF;
+    // Transferencias: [día (24 bits) | céntimos acumulados en el día (40)]
+    private static final int BITS_MONTO = 40;
+    private static final long MASCARA_MONTO = (1L << BITS_MONTO) - 1;
+    
+    private final int maxRetirosPorMinuto;
+    private final long maxTransferidoDiarioCentimos;
+    
+    // Reloj de baja resolución compartido: leer un volatile es mucho más barato
+    // que System.currentTimeMillis() y las ventanas son de minutos o días.
+    // El minuto y el día se precalculan para evitar divisiones en cada verificación.
+    // El hilo solo se inicia cuando algún limitador tiene una regla activa.
+    private static final long RESOLUCION_RELOJ_MILIS = 5;
+    private static volatile long relojMilis;
+    private static volatile long relojMinuto;
+    private static volatile long relojDia;
+    private static Thread actualizadorReloj;
+    
+    // Cada ranura ocupa 4 longs contiguos (32 bytes) para que una verificación
+    // toque una sola línea de caché: [DNI + 1 (0 = libre) | retiros | transferencias | relleno]
+    private static final int LONGS_POR_RANURA = 4;
+    private static final int DESPLAZAMIENTO_RETIROS = 1;
+    private static final int DESPLAZAMIENTO_TRANSFERENCIAS = 2;
+    
+    private volatile TablaRanuras[] tablas;
+    
+    public LimitadorTransacciones() {
+        this(RETIROS_POR_MINUTO_DEFECTO, TRANSFERENCIA_DIARIA_DEFECTO_CENTIMOS, CAPACIDAD_DEFECTO);
+    }
+    
+    /**
+     * Crea un limitador con las reglas indicadas.
+     * La capacidad es el número de cuentas previsto; la tabla reserva el doble
+     * y crece si llegan más cuentas.
+     */
+    public LimitadorTransacciones(int maxRetirosPorMinuto, long maxTransferidoDiarioCentimos, int capacidad) {
+        if (maxRetirosPorMinuto < 0 || maxRetirosPorMinuto > MAX_RETIROS_POR_MINUTO) {
+            throw new IllegalArgumentException(
+                    "El límite de retiros por minuto debe estar entre 0 y " + MAX_RETIROS_POR_MINUTO);
+        }
+        if (maxTransferidoDiarioCentimos < 0 || maxTransferidoDiarioCentimos > MASCARA_MONTO) {
+            throw new IllegalArgumentException(
+                    "El límite diario de transferencia debe estar entre 0 y " + MASCARA_MONTO + " céntimos");
+        }
+        if (capacidad <= 0 || capacidad > MAX_RANURAS / 2) {
+            throw new IllegalArgumentException("La capacidad debe estar entre 1 y " + MAX_RANURAS / 2);
+        }
+        
+        this.maxRetirosPorMinuto = maxRetirosPorMinuto;
+        this.maxTransferidoDiarioCentimos = maxTransferidoDiarioCentimos;
+        
+        int tamanio = Integer.highestOneBit(capacidad) << 1;
+        if (tamanio < capacidad * 2) {
+            tamanio <<= 1;
+        }
+        this.tablas = new TablaRanuras[] { new TablaRanuras(tamanio) };
+        
+        if (maxRetirosPorMinuto != SIN_LIMITE || maxTransferidoDiarioCentimos != SIN_LIMITE) {
+            iniciarReloj();
+        }
+    }
+    
+    /**
+     * Registra un intento de retiro.
+     * Retorna null si está permitido o el motivo del rechazo.
+     * Usa una ventana deslizante de un minuto aproximada con dos contadores.
+     */
+    public String verificarRetiro(String dni) {
+        if (maxRetirosPorMinuto == SIN_LIMITE) {
+            return null;
+        }
+        
+        long ubicacion = buscarRanura(dni);
+        if (ubicacion < 0) {
+            return null;
+        }
+        AtomicLongArray ranuras = tablas[(int) (ubicacion >>> 32)].ranuras;
+        int posicion = (int) ubicacion + DESPLAZAMIENTO_RETIROS;
+        
+        long minuto = relojMinuto;
+        long restante = Math.max(0, (minuto + 1) * MILIS_POR_MINUTO - relojMilis);
+        
+        while (true) {
+            long estado = ranuras.get(posicion);
+            long minutoEstado = estado >>> 32;
+            int previo = (int) ((estado >>> 16) & 0xFFFF);
+            int actual = (int) (estado & 0xFFFF);
+            
+            if (minutoEstado != minuto) {
+                previo = (minutoEstado == minuto - 1) ? actual : 0;
+                actual = 0;
+            }
+            
+            // El minuto previo pesa según lo que aún se solapa con la ventana
+            long estimado = actual + previo * restante / MILIS_POR_MINUTO;
+            if (estimado >= maxRetirosPorMinuto) {
+                return MOTIVO_LIMITE_RETIROS;
+            }
+            
+            long nuevo = (minuto << 32) | ((long) previo << 16) | (actual + 1);
+            if (ranuras.compareAndSet(posicion, estado, nuevo)) {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Reserva el monto de una transferencia dentro del límite diario.
+     * Retorna null si está permitida o el motivo del rechazo.
+     */
+    public String verificarTransferencia(String dni, long montoCentimos) {
+        if (maxTransferidoDiarioCentimos == SIN_LIMITE) {
+            return null;
+        }
+        if (montoCentimos > maxTransferidoDiarioCentimos) {
+            return MOTIVO_LIMITE_TRANSFERENCIA_DIARIA;
+        }
+        
+        long ubicacion = buscarRanura(dni);
+        if (ubicacion < 0) {
+            return null;
+        }
+        AtomicLongArray ranuras = tablas[(int) (ubicacion >>> 32)].ranuras;
+        int posicion = (int) ubicacion + DESPLAZAMIENTO_TRANSFERENCIAS;
+        
+        long dia = relojDia;
+        
+        while (true) {
+            long estado = ranuras.get(posicion);
+            long acumulado = (estado >>> BITS_MONTO) == dia ? estado & MASCARA_MONTO : 0;
+            
+            if (montoCentimos > maxTransferidoDiarioCentimos - acumulado) {
+                return MOTIVO_LIMITE_TRANSFERENCIA_DIARIA;
+            }
+            
+            long nuevo = (dia << BITS_MONTO) | (acumulado + montoCentimos);
+            if (ranuras.compareAndSet(posicion, estado, nuevo)) {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Inicia el hilo del reloj la primera vez que se necesita.
+     */
+    private static synchronized void iniciarReloj() {
+        if (actualizadorReloj != null) {
+            return;
+        }
+        actualizarReloj();
+        actualizadorReloj = new Thread(() -> {
+            while (true) {
+                actualizarReloj();
+                try {
+                    Thread.sleep(RESOLUCION_RELOJ_MILIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "reloj-limitador");
+        actualizadorReloj.setDaemon(true);
+        actualizadorReloj.start();
+    }
+    
+    /**
+     * Publica la hora actual. El día se calcula en la zona horaria del sistema,
+     * solo cuando cambia el minuto (los cambios de hora caen en minutos exactos).
+     */
+    private static void actualizarReloj() {
+        long ahora = System.currentTimeMillis();
+        long minuto = ahora / MILIS_POR_MINUTO;
+        if (minuto != relojMinuto) {
+            long desfase = ZoneId.systemDefault().getRules()
+                    .getOffset(Instant.ofEpochMilli(ahora)).getTotalSeconds() * 1000L;
+            relojDia = (ahora + desfase) / MILIS_POR_DIA;
+            relojMinuto = minuto;
+        }
+        relojMilis = ahora;
+    }
+    
+    /**
+     * Busca (o reserva) la ranura de una cuenta con sondeo lineal.
+     * Retorna la tabla (32 bits altos) y la posición de la ranura en ella,
+     * o -1 si el DNI no es válido o ya no se puede crecer más.
+     */
+    private long buscarRanura(String dni) {
+        int numeroDni = Validador.dniANumero(dni);
+        if (numeroDni < 0) {
+            return -1;
+        }
+        long clave = numeroDni + 1L;
+        
+        TablaRanuras[] actuales = tablas;
+        for (int t = 0; t < actuales.length; t++) {
+            int posicion = actuales[t].buscar(clave);
+            if (posicion >= 0) {
+                return ((long) t << 32) | posicion;
+            }
+        }
+        
+        // Cuenta nueva: va a la última tabla mientras no pase de la mitad.
+        // Dos hilos con el mismo DNI justo al crecer podrían usar tablas distintas;
+        // TransaccionService ya serializa cada cuenta, y el efecto solo sería permisivo.
+        while (true) {
+            int ultima = actuales.length - 1;
+            int posicion = actuales[ultima].reservar(clave);
+            if (posicion >= 0) {
+                return ((long) ultima << 32) | posicion;
+            }
+            actuales = crecer(actuales);
+            if (actuales == null) {
+                return -1;
+            }
+        }
+    }
+    
+    /**
+     * Agrega una tabla del doble de tamaño que la última.
+     * Retorna las tablas vigentes, o null si se llegó al tope de memoria.
+     */
+    private synchronized TablaRanuras[] crecer(TablaRanuras[] vistas) {
+        TablaRanuras[] actuales = tablas;
+        if (actuales != vistas) {
+            return actuales;
+        }
+        
+        int ranurasTotales = 0;
+        for (TablaRanuras tabla : actuales) {
+            ranurasTotales += tabla.mascara + 1;
+        }
+        int tamanio = (actuales[actuales.length - 1].mascara + 1) * 2;
+        if (ranurasTotales + tamanio > MAX_RANURAS) {
+            return null;
+        }
+        
+        TablaRanuras[] ampliadas = new TablaRanuras[actuales.length + 1];
+        System.arraycopy(actuales, 0, ampliadas, 0, actuales.length);
+        ampliadas[actuales.length] = new TablaRanuras(tamanio);
+        tablas = ampliadas;
+        return ampliadas;
+    }
+    
+    /**
+     * Una tabla de direccionamiento abierto con factor de carga máximo del 50%,
+     * para que el sondeo lineal sea corto y siempre encuentre una ranura libre.
+     */
+    private static class TablaRanuras {
+        
+        private final int mascara;
+        private final AtomicLongArray ranuras;
+        private final AtomicInteger ocupadas;
+        
+        TablaRanuras(int tamanio) {
+            this.mascara = tamanio - 1;
+            this.ranuras = new AtomicLongArray(tamanio * LONGS_POR_RANURA);
+            this.ocupadas = new AtomicInteger();
+        }
+        
+        /**
+         * Retorna la posición de la ranura con la clave, o -1 si no está.
+         */
+        int buscar(long clave) {
+            int indice = Validador.mezclarDni((int) clave) & mascara;
+            while (true) {
+                int posicion = indice * LONGS_POR_RANURA;
+                long actual = ranuras.get(posicion);
+                if (actual == clave) {
+                    return posicion;
+                }
+                if (actual == 0) {
+                    return -1;
+                }
+                indice = (indice + 1) & mascara;
+            }
+        }
+        
+        /**
+         * Ocupa una ranura para la clave (o retorna la existente si otro hilo
+         * se adelantó). Retorna -1 si la tabla ya está a la mitad.
+         */
+        int reservar(long clave) {
+            if (ocupadas.incrementAndGet() > (mascara + 1) / 2) {
+                ocupadas.decrementAndGet();
+                return buscar(clave);
+            }
+            
+            int indice = Validador.mezclarDni((int) clave) & mascara;
+            while (true) {
+                int posicion = indice * LONGS_POR_RANURA;
+                long actual = ranuras.get(posicion);
+                if (actual == clave) {
+                    ocupadas.decrementAndGet();
+                    return posicion;
+                }
+                if (actual == 0) {
+                    if (ranuras.compareAndSet(posicion, 0, clave)) {
+                        return posicion;
+                    }
+                    if (ranuras.get(posicion) == clave) {
+                        ocupadas.decrementAndGet();
+                        return posicion;
+                    }
+                }
+                indice = (indice + 1) & mascara;
+            }
+        }
+    }
+}
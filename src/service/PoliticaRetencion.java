@@ -0,0 +1,81 @@
+package service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configura qué parte del libro mayor se mantiene en memoria.
+ * Las transacciones se agrupan en segmentos de tamaño fijo; un segmento
+ * completo pasa a disco (comprimido) cuando hay más transacciones en memoria
+ * de las permitidas o cuando su transacción más reciente supera la edad máxima.
+ */
+public class PoliticaRetencion {
+    
+    public static final int TRANSACCIONES_POR_SEGMENTO_DEFECTO = 1 << 16;
+    public static final int SEGMENTOS_EN_CACHE_DEFECTO = 4;
+    public static final Duration INTERVALO_REVISION_DEFECTO = Duration.ofSeconds(1);
+    
+    private Path directorio;
+    private long transaccionesEnMemoria;
+    private Duration edadMaxima;              // null = sin límite de edad
+    private int transaccionesPorSegmento;
+    private int segmentosEnCache;
+    private Duration intervaloRevision;
+    
+    public PoliticaRetencion(Path directorio, long transaccionesEnMemoria, Duration edadMaxima) {
+        this(directorio, transaccionesEnMemoria, edadMaxima, TRANSACCIONES_POR_SEGMENTO_DEFECTO,
+                SEGMENTOS_EN_CACHE_DEFECTO, INTERVALO_REVISION_DEFECTO);
+    }
+    
+    /**
+     * @param directorio donde se crean los segmentos en disco
+     * @param transaccionesEnMemoria máximo de transacciones (en segmentos completos) que quedan en memoria
+     * @param edadMaxima antigüedad a partir de la cual un segmento completo pasa a disco (null = sin límite)
+     * @param transaccionesPorSegmento tamaño de cada segmento, potencia de 2
+     * @param segmentosEnCache segmentos leídos de disco que se conservan descomprimidos
+     * @param intervaloRevision cada cuánto revisa el hilo de retención
+     */
+    public PoliticaRetencion(Path directorio, long transaccionesEnMemoria, Duration edadMaxima,
+                             int transaccionesPorSegmento, int segmentosEnCache, Duration intervaloRevision) {
+        if (transaccionesEnMemoria < 0) {
+            throw new IllegalArgumentException("Las transacciones en memoria no pueden ser negativas.");
+        }
+        if (transaccionesPorSegmento <= 0 || Integer.bitCount(transaccionesPorSegmento) != 1) {
+            throw new IllegalArgumentException("Las transacciones por segmento deben ser potencia de 2.");
+        }
+        if (segmentosEnCache < 0) {
+            throw new IllegalArgumentException("Los segmentos en caché no pueden ser negativos.");
+        }
+        this.directorio = directorio;
+        this.transaccionesEnMemoria = transaccionesEnMemoria;
+        this.edadMaxima = edadMaxima;
+        this.transaccionesPorSegmento = transaccionesPorSegmento;
+        this.segmentosEnCache = segmentosEnCache;
+        this.intervaloRevision = intervaloRevision;
+    }
+    
+    // Getters
+    public Path getDirectorio() {
+        return directorio;
+    }
+    
+    public long getTransaccionesEnMemoria() {
+        return transaccionesEnMemoria;
+    }
+    
+    public Duration getEdadMaxima() {
+        return edadMaxima;
+    }
+    
+    public int getTransaccionesPorSegmento() {
+        return transaccionesPorSegmento;
+    }
+    
+    public int getSegmentosEnCache() {
+        return segmentosEnCache;
+    }
+    
+    public Duration getIntervaloRevision() {
+        return intervaloRevision;
+    }
+}
@@ -0,0 +1,77 @@
+package service;
+
+import model.ResultadoAcumulacion;
+
+import java.util.BitSet;
+
+/**
+ * Avance de un proceso de acumulación: qué grupos de cuentas (uno por
+ * bloqueo de TransaccionService) ya se aplicaron y con qué totales.
+ * Los grupos se marcan con su bloqueo tomado, junto con los saldos,
+ * así que al reanudar un proceso interrumpido ningún grupo se aplica dos veces.
+ *
+ * Las cuentas viven en memoria, así que el punto de control también:
+ * sirve para reanudar dentro del mismo proceso de la aplicación.
+ */
+class PuntoControlAcumulacion {
+    
+    private final String idProceso;
+    private final ReglaAcumulacion regla;
+    private final int gruposTotales;
+    private final BitSet gruposCompletados;
+    private long cuentasProcesadas;
+    private long cuentasConMovimiento;
+    private long montoTotalCentimos;
+    private volatile boolean cancelado;
+    
+    // Protege el avance; el objeto mismo lo usa AcumulacionService para no ejecutar dos veces a la vez
+    private final Object estado = new Object();
+    
+    PuntoControlAcumulacion(String idProceso, ReglaAcumulacion regla, int gruposTotales) {
+        this.idProceso = idProceso;
+        this.regla = regla;
+        this.gruposTotales = gruposTotales;
+        this.gruposCompletados = new BitSet(gruposTotales);
+    }
+    
+    void marcarGrupo(int grupo, int cuentas, int conMovimiento, long montoCentimos) {
+        synchronized (estado) {
+            gruposCompletados.set(grupo);
+            cuentasProcesadas += cuentas;
+            cuentasConMovimiento += conMovimiento;
+            montoTotalCentimos += montoCentimos;
+        }
+    }
+    
+    boolean grupoCompletado(int grupo) {
+        synchronized (estado) {
+            return gruposCompletados.get(grupo);
+        }
+    }
+    
+    boolean estaCompleto() {
+        synchronized (estado) {
+            return gruposCompletados.cardinality() == gruposTotales;
+        }
+    }
+    
+    ResultadoAcumulacion crearResultado(long duracionMilis) {
+        synchronized (estado) {
+            return new ResultadoAcumulacion(idProceso, regla.toString(), cuentasProcesadas,
+                    cuentasConMovimiento, montoTotalCentimos, gruposCompletados.cardinality(),
+                    gruposTotales, duracionMilis);
+        }
+    }
+    
+    ReglaAcumulacion getRegla() {
+        return regla;
+    }
+    
+    boolean estaCancelado() {
+        return cancelado;
+    }
+    
+    void setCancelado(boolean cancelado) {
+        this.cancelado = cancelado;
+    }
+}
@@ -0,0 +1,126 @@
+package service;
+
+import model.Transaccion;
+import util.Validador;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Regla para calcular el interés o la comisión de una cuenta a partir de su saldo.
+ * Las tasas se definen con BigDecimal, pero se convierten una sola vez a una
+ * fracción entera exacta (numerador / denominador) para que el cálculo por
+ * cuenta use aritmética long. El redondeo a céntimos es HALF_EVEN (bancario),
+ * idéntico al que daría BigDecimal; solo si el producto desborda un long se
+ * recurre a BigDecimal.
+ */
+public class ReglaAcumulacion {
+    
+    private static final int DIAS_POR_ANIO = 365;
+    
+    private String tipoTransaccion;
+    private String descripcion;
+    
+    // Interés: saldo * numerador / denominador
+    private long numerador;
+    private long denominador;
+    
+    // Comisión: monto fijo, exento desde cierto saldo (0 = nunca exento)
+    private long comisionCentimos;
+    private long saldoExentoCentimos;
+    
+    private ReglaAcumulacion(String tipoTransaccion, String descripcion) {
+        this.tipoTransaccion = tipoTransaccion;
+        this.descripcion = descripcion;
+    }
+    
+    /**
+     * Interés simple de una tasa anual (p. ej. 0.035 = 3.5%) por la cantidad de días indicada.
+     */
+    public static ReglaAcumulacion interes(BigDecimal tasaAnual, int dias) {
+        if (tasaAnual == null || tasaAnual.signum() < 0 || dias <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser no negativa y los días positivos.");
+        }
+        
+        BigDecimal tasa = tasaAnual.stripTrailingZeros();
+        int escala = Math.max(tasa.scale(), 0);
+        ReglaAcumulacion regla = new ReglaAcumulacion(Transaccion.TIPO_INTERES,
+                "Interés " + tasaAnual.movePointRight(2).toPlainString() + "% anual x " + dias + " días");
+        try {
+            regla.numerador = Math.multiplyExact(tasa.movePointRight(escala).longValueExact(), dias);
+            regla.denominador = Math.multiplyExact(BigDecimal.ONE.movePointRight(escala).longValueExact(),
+                    DIAS_POR_ANIO);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("La tasa tiene demasiados decimales: " + tasaAnual, e);
+        }
+        return regla;
+    }
+    
+    /**
+     * Comisión fija por cuenta. Las cuentas con saldo mayor o igual a saldoExento
+     * no pagan (null o cero = todas pagan). Nunca se cobra más que el saldo disponible.
+     */
+    public static ReglaAcumulacion comision(BigDecimal monto, BigDecimal saldoExento) {
+        if (!Validador.esMontoValido(monto)) {
+            throw new IllegalArgumentException("La comisión debe ser mayor a cero, con máximo 2 decimales.");
+        }
+        if (saldoExento != null && !Validador.esSaldoValido(saldoExento)) {
+            throw new IllegalArgumentException("El saldo exento no es válido: " + saldoExento);
+        }
+        
+        ReglaAcumulacion regla = new ReglaAcumulacion(Transaccion.TIPO_COMISION,
+                "Comisión de S/ " + monto.toPlainString());
+        regla.comisionCentimos = Validador.montoACentimos(monto);
+        regla.saldoExentoCentimos = saldoExento == null ? 0 : Validador.montoACentimos(saldoExento);
+        return regla;
+    }
+    
+    /**
+     * Calcula el monto (en céntimos, siempre positivo o cero) a aplicar a una cuenta.
+     */
+    public long calcularCentimos(long saldoCentimos) {
+        if (Transaccion.TIPO_COMISION.equals(tipoTransaccion)) {
+            if (saldoCentimos <= 0 || (saldoExentoCentimos > 0 && saldoCentimos >= saldoExentoCentimos)) {
+                return 0;
+            }
+            return Math.min(comisionCentimos, saldoCentimos);
+        }
+        
+        if (saldoCentimos <= 0 || numerador == 0) {
+            return 0;
+        }
+        long producto;
+        try {
+            producto = Math.multiplyExact(saldoCentimos, numerador);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(saldoCentimos).multiply(BigDecimal.valueOf(numerador))
+                    .divide(BigDecimal.valueOf(denominador), 0, RoundingMode.HALF_EVEN)
+                    .longValueExact();
+        }
+        
+        // División con redondeo HALF_EVEN sobre enteros positivos
+        long cociente = producto / denominador;
+        long resto = producto % denominador;
+        long doble = resto * 2;
+        if (doble > denominador || (doble == denominador && (cociente & 1) == 1)) {
+            cociente++;
+        }
+        return cociente;
+    }
+    
+    /**
+     * Indica si el monto se suma al saldo (interés) o se resta (comisión).
+     */
+    public boolean esAbono() {
+        return Transaccion.TIPO_INTERES.equals(tipoTransaccion);
+    }
+    
+    public String getTipoTransaccion() {
+        return tipoTransaccion;
+    }
+    
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
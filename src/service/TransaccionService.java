@@ -12,15 +12,54 @@ import java.util.List;
  * Servicio que gestiona las operaciones financieras del sistema.
  * Ejecuta depósitos, retiros y transferencias, actualizando saldos
  * y registrando el historial de transacciones.
+ *
+ * Es seguro para uso concurrente: cada cuenta se protege con un bloqueo
+ * de un conjunto fijo (por DNI), y las transferencias toman los dos
+ * bloqueos siempre en el mismo orden para evitar interbloqueos.
  */
 public class TransaccionService {
     
-    private List<Transaccion> historialTransacciones;
+    private static final int NUMERO_BLOQUEOS = 1024;
+    
+    private LibroMayor historialTransacciones;
     private UsuarioService usuarioService;
+    private LimitadorTransacciones limitador;
+    private Object[] bloqueos;
     
     public TransaccionService(UsuarioService usuarioService) {
-        this.historialTransacciones = new ArrayList<>();
+        this(usuarioService, new LimitadorTransacciones());
+    }
+    
+    public TransaccionService(UsuarioService usuarioService, LimitadorTransacciones limitador) {
+        this(usuarioService, limitador, new LibroMayor());
+    }
+    
+    public TransaccionService(UsuarioService usuarioService, LimitadorTransacciones limitador,
+                              LibroMayor libroMayor) {
+        this.historialTransacciones = libroMayor;
         this.usuarioService = usuarioService;
+        this.limitador = limitador;
+        this.bloqueos = new Object[NUMERO_BLOQUEOS];
+        for (int i = 0; i < NUMERO_BLOQUEOS; i++) {
+            bloqueos[i] = new Object();
+        }
+    }
+    
+    /**
+     * Registra un nuevo usuario y anota su saldo inicial como
+     * transacción de apertura, para que el libro mayor explique todo el saldo.
+     */
+    public boolean registrarUsuario(String dni, String nombreCompleto, BigDecimal saldoInicial) {
+        synchronized (bloqueoDe(dni)) {
+            if (!usuarioService.registrarUsuario(dni, nombreCompleto, saldoInicial)) {
+                return false;
+            }
+            
+            Transaccion transaccion = new Transaccion(
+                    Transaccion.TIPO_APERTURA, saldoInicial, dni);
+            historialTransacciones.registrar(transaccion);
+        }
+        return true;
     }
     
     /**
@@ -29,28 +68,37 @@ public class TransaccionService {
     public boolean realizarDeposito(String dniUsuario, BigDecimal monto) {
         // Validar monto
         if (!Validador.esMontoValido(monto)) {
-            Validador.mostrarError("El monto debe ser mayor a cero.");
+            Validador.mostrarError("El monto debe ser mayor a cero y tener como máximo 2 decimales.");
             return false;
         }
         
-        // Buscar usuario
-        Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
-        if (usuario == null) {
-            Validador.mostrarError("No existe un usuario con el DNI: " + dniUsuario);
-            return false;
+        BigDecimal nuevoSaldo;
+        synchronized (bloqueoDe(dniUsuario)) {
+            // Buscar usuario
+            Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
+            if (usuario == null) {
+                Validador.mostrarError("No existe un usuario con el DNI: " + dniUsuario);
+                return false;
+            }
+            
+            // Realizar depósito
+            nuevoSaldo = usuario.getSaldo().add(monto);
+            if (!Validador.esSaldoValido(nuevoSaldo)) {
+                Validador.mostrarError("El saldo resultante supera el máximo permitido.");
+                return false;
+            }
+            usuarioService.actualizarSaldo(usuario, nuevoSaldo);
+            
+            // Registrar transacción
+            Transaccion transaccion = new Transaccion(
+                    Transaccion.TIPO_DEPOSITO, monto, dniUsuario);
+            historialTransacciones.registrar(transaccion);
         }
         
-        // Realizar depósito
-        BigDecimal nuevoSaldo = usuario.getSaldo().add(monto);
-        usuario.setSaldo(nuevoSaldo);
-        
-        // Registrar transacción
-        Transaccion transaccion = new Transaccion(
-                Transaccion.TIPO_DEPOSITO, monto, dniUsuario);
-        historialTransacciones.add(transaccion);
-        
-        Validador.mostrarExito("Depósito realizado correctamente.");
-        System.out.println("Nuevo saldo: S/ " + nuevoSaldo);
+        if (Validador.mensajesHabilitados()) {
+            Validador.mostrarExito("Depósito realizado correctamente.");
+            System.out.println("Nuevo saldo: S/ " + nuevoSaldo);
+        }
         return true;
     }
     
@@ -60,34 +108,46 @@ public class TransaccionService {
     public boolean realizarRetiro(String dniUsuario, BigDecimal monto) {
         // Validar monto
         if (!Validador.esMontoValido(monto)) {
-            Validador.mostrarError("El monto debe ser mayor a cero.");
+            Validador.mostrarError("El monto debe ser mayor a cero y tener como máximo 2 decimales.");
             return false;
         }
         
-        // Buscar usuario
-        Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
-        if (usuario == null) {
-            Validador.mostrarError("No existe un usuario con el DNI: " + dniUsuario);
-            return false;
+        BigDecimal nuevoSaldo;
+        synchronized (bloqueoDe(dniUsuario)) {
+            // Buscar usuario
+            Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
+            if (usuario == null) {
+                Validador.mostrarError("No existe un usuario con el DNI: " + dniUsuario);
+                return false;
+            }
+            
+            // Validar saldo suficiente
+            if (!Validador.tieneSaldoSuficiente(usuario.getSaldo(), monto)) {
+                Validador.mostrarError("Saldo insuficiente. Saldo actual: S/ " + usuario.getSaldo());
+                return false;
+            }
+            
+            // Validar límites de velocidad de la cuenta
+            String motivoRechazo = limitador.verificarRetiro(dniUsuario);
+            if (motivoRechazo != null) {
+                Validador.mostrarError("Retiro rechazado. " + motivoRechazo);
+                return false;
+            }
+            
+            // Realizar retiro
+            nuevoSaldo = usuario.getSaldo().subtract(monto);
+            usuarioService.actualizarSaldo(usuario, nuevoSaldo);
+            
+            // Registrar transacción
+            Transaccion transaccion = new Transaccion(
+                    Transaccion.TIPO_RETIRO, monto, dniUsuario);
+            historialTransacciones.registrar(transaccion);
         }
         
-        // Validar saldo suficiente
-        if (!Validador.tieneSaldoSuficiente(usuario.getSaldo(), monto)) {
-            Validador.mostrarError("Saldo insuficiente. Saldo actual: S/ " + usuario.getSaldo());
-            return false;
+        if (Validador.mensajesHabilitados()) {
+            Validador.mostrarExito("Retiro realizado correctamente.");
+            System.out.println("Nuevo saldo: S/ " + nuevoSaldo);
         }
-        
-        // Realizar retiro
-        BigDecimal nuevoSaldo = usuario.getSaldo().subtract(monto);
-        usuario.setSaldo(nuevoSaldo);
-        
-        // Registrar transacción
-        Transaccion transaccion = new Transaccion(
-                Transaccion.TIPO_RETIRO, monto, dniUsuario);
-        historialTransacciones.add(transaccion);
-        
-        Validador.mostrarExito("Retiro realizado correctamente.");
-        System.out.println("Nuevo saldo: S/ " + nuevoSaldo);
         return true;
     }
     
@@ -97,87 +157,171 @@ public class TransaccionService {
     public boolean realizarTransferencia(String dniOrigen, String dniDestino, BigDecimal monto) {
         // Validar monto
         if (!Validador.esMontoValido(monto)) {
-            Validador.mostrarError("El monto debe ser mayor a cero.");
+            Validador.mostrarError("El monto debe ser mayor a cero y tener como máximo 2 decimales.");
             return false;
         }
         
+        // Se convierte una sola vez, fuera de los bloqueos (el limitador trabaja en céntimos)
+        long montoCentimos = Validador.montoACentimos(monto);
+        
         // Validar que no sea la misma cuenta
         if (dniOrigen.equals(dniDestino)) {
             Validador.mostrarError("No puede transferir a la misma cuenta.");
             return false;
         }
         
-        // Buscar usuario origen
-        Usuario usuarioOrigen = usuarioService.buscarPorDni(dniOrigen);
-        if (usuarioOrigen == null) {
-            Validador.mostrarError("No existe el usuario origen con DNI: " + dniOrigen);
-            return false;
-        }
+        // Tomar los bloqueos de ambas cuentas en orden fijo
+        int indiceOrigen = indiceBloqueo(dniOrigen);
+        int indiceDestino = indiceBloqueo(dniDestino);
+        Usuario usuarioOrigen;
+        Usuario usuarioDestino;
+        BigDecimal nuevoSaldoOrigen;
         
-        // Buscar usuario destino
-        Usuario usuarioDestino = usuarioService.buscarPorDni(dniDestino);
-        if (usuarioDestino == null) {
-            Validador.mostrarError("No existe el usuario destino con DNI: " + dniDestino);
-            return false;
+        synchronized (bloqueos[Math.min(indiceOrigen, indiceDestino)]) {
+            synchronized (bloqueos[Math.max(indiceOrigen, indiceDestino)]) {
+                // Buscar usuario origen
+                usuarioOrigen = usuarioService.buscarPorDni(dniOrigen);
+                if (usuarioOrigen == null) {
+                    Validador.mostrarError("No existe el usuario origen con DNI: " + dniOrigen);
+                    return false;
+                }
+                
+                // Buscar usuario destino
+                usuarioDestino = usuarioService.buscarPorDni(dniDestino);
+                if (usuarioDestino == null) {
+                    Validador.mostrarError("No existe el usuario destino con DNI: " + dniDestino);
+                    return false;
+                }
+                
+                // Validar saldo suficiente
+                if (!Validador.tieneSaldoSuficiente(usuarioOrigen.getSaldo(), monto)) {
+                    Validador.mostrarError("Saldo insuficiente. Saldo actual: S/ " + usuarioOrigen.getSaldo());
+                    return false;
+                }
+                
+                // Validar que el destino no supere el saldo máximo
+                BigDecimal nuevoSaldoDestino = usuarioDestino.getSaldo().add(monto);
+                if (!Validador.esSaldoValido(nuevoSaldoDestino)) {
+                    Validador.mostrarError("El saldo resultante del destino supera el máximo permitido.");
+                    return false;
+                }
+                
+                // Validar límites de velocidad de la cuenta origen
+                String motivoRechazo = limitador.verificarTransferencia(dniOrigen, montoCentimos);
+                if (motivoRechazo != null) {
+                    Validador.mostrarError("Transferencia rechazada. " + motivoRechazo);
+                    return false;
+                }
+                
+                // Realizar transferencia
+                nuevoSaldoOrigen = usuarioOrigen.getSaldo().subtract(monto);
+                
+                usuarioService.actualizarSaldo(usuarioOrigen, nuevoSaldoOrigen);
+                usuarioService.actualizarSaldo(usuarioDestino, nuevoSaldoDestino);
+                
+                // Registrar transacción
+                Transaccion transaccion = new Transaccion(
+                        Transaccion.TIPO_TRANSFERENCIA, monto, dniOrigen, dniDestino);
+                historialTransacciones.registrar(transaccion);
+            }
         }
         
-        // Validar saldo suficiente
-        if (!Validador.tieneSaldoSuficiente(usuarioOrigen.getSaldo(), monto)) {
-            Validador.mostrarError("Saldo insuficiente. Saldo actual: S/ " + usuarioOrigen.getSaldo());
-            return false;
+        if (Validador.mensajesHabilitados()) {
+            Validador.mostrarExito("Transferencia realizada correctamente.");
+            System.out.println("De: " + usuarioOrigen.getNombreCompleto() + " -> A: " + usuarioDestino.getNombreCompleto());
+            System.out.println("Monto transferido: S/ " + monto);
+            System.out.println("Nuevo saldo de " + usuarioOrigen.getNombreCompleto() + ": S/ " + nuevoSaldoOrigen);
         }
-        
-        // Realizar transferencia
-        BigDecimal nuevoSaldoOrigen = usuarioOrigen.getSaldo().subtract(monto);
-        BigDecimal nuevoSaldoDestino = usuarioDestino.getSaldo().add(monto);
-        
-        usuarioOrigen.setSaldo(nuevoSaldoOrigen);
-        usuarioDestino.setSaldo(nuevoSaldoDestino);
-        
-        // Registrar transacción
-        Transaccion transaccion = new Transaccion(
-                Transaccion.TIPO_TRANSFERENCIA, monto, dniOrigen, dniDestino);
-        historialTransacciones.add(transaccion);
-        
-        Validador.mostrarExito("Transferencia realizada correctamente.");
-        System.out.println("De: " + usuarioOrigen.getNombreCompleto() + " -> A: " + usuarioDestino.getNombreCompleto());
-        System.out.println("Monto transferido: S/ " + monto);
-        System.out.println("Nuevo saldo de " + usuarioOrigen.getNombreCompleto() + ": S/ " + nuevoSaldoOrigen);
         return true;
     }
     
+    /**
+     * Retorna el saldo actual de un usuario o null si no existe.
+     */
+    public BigDecimal obtenerSaldo(String dniUsuario) {
+        synchronized (bloqueoDe(dniUsuario)) {
+            Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
+            return usuario == null ? null : usuario.getSaldo();
+        }
+    }
+    
     /**
      * Consulta el saldo de un usuario.
      */
     public void consultarSaldo(String dniUsuario) {
-        Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
-        if (usuario == null) {
+        String nombreCompleto = null;
+        BigDecimal saldo = null;
+        synchronized (bloqueoDe(dniUsuario)) {
+            // Copiar con el bloqueo tomado: el Usuario puede ser el objeto compartido
+            Usuario usuario = usuarioService.buscarPorDni(dniUsuario);
+            if (usuario != null) {
+                nombreCompleto = usuario.getNombreCompleto();
+                saldo = usuario.getSaldo();
+            }
+        }
+        if (saldo == null) {
             Validador.mostrarError("No existe un usuario con el DNI: " + dniUsuario);
             return;
         }
         
         System.out.println("\n========== CONSULTA DE SALDO ==========");
-        System.out.println("Usuario: " + usuario.getNombreCompleto());
-        System.out.println("DNI: " + usuario.getDni());
-        System.out.println("Saldo disponible: S/ " + usuario.getSaldo());
+        System.out.println("Usuario: " + nombreCompleto);
+        System.out.println("DNI: " + dniUsuario);
+        System.out.println("Saldo disponible: S/ " + saldo);
         System.out.println("=".repeat(40));
     }
     
+    /**
+     * Retorna una copia del historial de todas las transacciones.
+     */
+    public List<Transaccion> obtenerHistorial() {
+        return historialTransacciones.copiar();
+    }
+    
+    /**
+     * Retorna las transacciones en las que participa un usuario.
+     */
+    public List<Transaccion> obtenerHistorialPorUsuario(String dni) {
+        return historialTransacciones.buscarPorUsuario(dni);
+    }
+    
+    /**
+     * Retorna el libro mayor con todas las transacciones.
+     */
+    public LibroMayor getLibroMayor() {
+        return historialTransacciones;
+    }
+    
+    /**
+     * Toma una instantánea consistente de los saldos y del libro mayor:
+     * el saldo de cada cuenta refleja exactamente las primeras
+     * getTransacciones() transacciones del libro. Bloquea todas las cuentas
+     * solo mientras copia los saldos en céntimos; el tráfico continúa después.
+     */
+    public InstantaneaCuentas tomarInstantanea() {
+        long[][] saldosCentimos = new long[1][];
+        long transacciones = copiarSaldosBloqueando(0, saldosCentimos);
+        
+        // Las cuentas no cambian de posición, así que los DNIs se leen ya sin bloqueos
+        String[] dnis = usuarioService.copiarDnis(saldosCentimos[0].length);
+        return new InstantaneaCuentas(dnis, saldosCentimos[0], transacciones);
+    }
+    
     /**
      * Muestra el historial de todas las transacciones.
      */
     public void mostrarHistorial() {
-        if (historialTransacciones.isEmpty()) {
+        // Se recorre el libro en su lugar, sin copiarlo
+        long total = historialTransacciones.tamanio();
+        if (total == 0) {
             Validador.mostrarInfo("No hay transacciones registradas.");
             return;
         }
         
         System.out.println("\n========== HISTORIAL DE TRANSACCIONES ==========");
-        for (Transaccion transaccion : historialTransacciones) {
-            System.out.println(transaccion);
-        }
+        historialTransacciones.recorrer(0, total, System.out::println);
         System.out.println("=".repeat(50));
-        System.out.println("Total de transacciones: " + historialTransacciones.size());
+        System.out.println("Total de transacciones: " + total);
     }
     
     /**
@@ -190,20 +334,110 @@ public class TransaccionService {
         }
         
         System.out.println("\n========== HISTORIAL DEL USUARIO: " + dni + " ==========");
-        int contador = 0;
+        List<Transaccion> historial = obtenerHistorialPorUsuario(dni);
         
-        for (Transaccion t : historialTransacciones) {
-            if (t.getDniOrigen().equals(dni) || 
-                (t.getDniDestino() != null && t.getDniDestino().equals(dni))) {
-                System.out.println(t);
-                contador++;
-            }
+        for (Transaccion t : historial) {
+            System.out.println(t);
         }
         
-        if (contador == 0) {
+        if (historial.isEmpty()) {
             Validador.mostrarInfo("Este usuario no tiene transacciones registradas.");
         } else {
-            System.out.println("Total de transacciones: " + contador);
+            System.out.println("Total de transacciones: " + historial.size());
+        }
+    }
+    
+    /**
+     * Retorna cuántos bloqueos (y por tanto grupos de cuentas) usa el servicio.
+     */
+    int numeroBloqueos() {
+        return bloqueos.length;
+    }
+    
+    /**
+     * Retorna los DNIs de todas las cuentas agrupados por el bloqueo que las protege
+     * (posición i = bloqueo i), para que un proceso por lotes pueda tomar cada
+     * bloqueo una sola vez por grupo.
+     */
+    List<List<String>> agruparCuentasPorBloqueo() {
+        List<List<String>> grupos = new ArrayList<>(bloqueos.length);
+        for (int i = 0; i < bloqueos.length; i++) {
+            grupos.add(new ArrayList<>());
+        }
+        for (String dni : usuarioService.copiarDnis(usuarioService.contarUsuarios())) {
+            grupos.get(indiceBloqueo(dni)).add(dni);
+        }
+        return grupos;
+    }
+    
+    /**
+     * Aplica una regla de acumulación a un grupo de cuentas que comparten el
+     * bloqueo dado. Con el bloqueo tomado actualiza los saldos, registra un
+     * movimiento por cuenta en el libro (todos de una vez) y marca el grupo en
+     * el punto de control, así que un grupo nunca queda aplicado a medias.
+     */
+    void aplicarAcumulacion(int indiceBloqueo, List<String> dnis, ReglaAcumulacion regla,
+                            PuntoControlAcumulacion puntoControl) {
+        synchronized (bloqueos[indiceBloqueo]) {
+            List<Transaccion> movimientos = new ArrayList<>();
+            long total = 0;
+            for (String dni : dnis) {
+                long saldo = usuarioService.obtenerSaldoCentimos(dni);
+                if (saldo == AlmacenCuentas.SIN_CUENTA) {
+                    continue;
+                }
+                long monto = regla.calcularCentimos(saldo);
+                if (monto == 0) {
+                    continue;
+                }
+                
+                // Una cuenta cuyo saldo desbordaría el máximo no recibe el abono
+                long nuevoSaldo;
+                try {
+                    nuevoSaldo = regla.esAbono()
+                            ? Math.addExact(saldo, monto)
+                            : Math.subtractExact(saldo, monto);
+                } catch (ArithmeticException e) {
+                    continue;
+                }
+                usuarioService.actualizarSaldoCentimos(dni, nuevoSaldo);
+                movimientos.add(new Transaccion(regla.getTipoTransaccion(), monto, dni));
+                total += monto;
+            }
+            historialTransacciones.registrarTodas(movimientos);
+            puntoControl.marcarGrupo(indiceBloqueo, dnis.size(), movimientos.size(), total);
+        }
+    }
+    
+    /**
+     * Toma los bloqueos en orden creciente (el mismo orden que las
+     * transferencias) y, con todos tomados, copia solo los saldos en céntimos
+     * (en saldosCentimos[0]) y retorna el tamaño del libro. No crea objetos
+     * por cuenta, para soltar los bloqueos lo antes posible.
+     */
+    private long copiarSaldosBloqueando(int indiceBloqueo, long[][] saldosCentimos) {
+        if (indiceBloqueo < bloqueos.length) {
+            synchronized (bloqueos[indiceBloqueo]) {
+                return copiarSaldosBloqueando(indiceBloqueo + 1, saldosCentimos);
+            }
+        }
+        
+        saldosCentimos[0] = new long[usuarioService.contarUsuarios()];
+        usuarioService.copiarSaldosCentimos(saldosCentimos[0]);
+        return historialTransacciones.tamanio();
+    }
+    
+    /**
+     * Retorna el bloqueo que protege la cuenta del DNI dado.
+     */
+    private Object bloqueoDe(String dni) {
+        return bloqueos[indiceBloqueo(dni)];
+    }
+    
+    private int indiceBloqueo(String dni) {
+        if (dni == null) {
+            return 0;
         }
+        return (dni.hashCode() & 0x7FFFFFFF) % NUMERO_BLOQUEOS;
     }
 }
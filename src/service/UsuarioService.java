@@ -4,26 +4,38 @@ import model.Usuario;
 import util.Validador;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Servicio que gestiona la lista de usuarios del sistema.
+ * Servicio que gestiona los usuarios del sistema.
  * Responsable de registrar, buscar y listar usuarios.
+ * El almacenamiento de las cuentas se delega en un AlmacenCuentas.
+ * Los registros toman el bloqueo de escritura y el resto de operaciones
+ * el de lectura, así el almacén nunca cambia de estructura mientras se consulta.
  */
 public class UsuarioService {
     
-    private List<Usuario> listaUsuarios;
+    private AlmacenCuentas almacen;
+    private ReadWriteLock bloqueo;
     
     public UsuarioService() {
-        this.listaUsuarios = new ArrayList<>();
+        this(new AlmacenCuentasMemoria());
+    }
+    
+    public UsuarioService(AlmacenCuentas almacen) {
+        this.almacen = almacen;
+        this.bloqueo = new ReentrantReadWriteLock();
     }
     
     /**
      * Registra un nuevo usuario en el sistema.
      * Valida que el DNI no esté duplicado.
+     * Solo se llama desde TransaccionService.registrarUsuario, que toma el
+     * bloqueo del DNI y anota la apertura en el libro mayor.
      */
-    public boolean registrarUsuario(String dni, String nombreCompleto, BigDecimal saldoInicial) {
+    boolean registrarUsuario(String dni, String nombreCompleto, BigDecimal saldoInicial) {
         // Validar formato de DNI
         if (!Validador.esDniValido(dni)) {
             Validador.mostrarError("El DNI ingresado no es válido. Debe tener 8 dígitos.");
@@ -37,21 +49,25 @@ public class UsuarioService {
         }
         
         // Validar saldo inicial
-        if (saldoInicial == null || saldoInicial.compareTo(BigDecimal.ZERO) < 0) {
-            Validador.mostrarError("El saldo inicial debe ser un número no negativo.");
+        if (!Validador.esSaldoValido(saldoInicial)) {
+            Validador.mostrarError("El saldo inicial debe ser un número no negativo con máximo 2 decimales.");
             return false;
         }
         
-        // Validar DNI no duplicado
-        if (existeUsuario(dni)) {
-            Validador.mostrarError("Ya existe un usuario registrado con el DNI: " + dni);
-            return false;
+        bloqueo.writeLock().lock();
+        try {
+            // Validar DNI no duplicado
+            if (almacen.existe(dni)) {
+                Validador.mostrarError("Ya existe un usuario registrado con el DNI: " + dni);
+                return false;
+            }
+            
+            // Crear y registrar usuario
+            almacen.agregar(dni, nombreCompleto.trim(), saldoInicial);
+        } finally {
+            bloqueo.writeLock().unlock();
         }
         
-        // Crear y registrar usuario
-        Usuario nuevoUsuario = new Usuario(dni, nombreCompleto.trim(), saldoInicial);
-        listaUsuarios.add(nuevoUsuario);
-        
         Validador.mostrarExito("Usuario registrado correctamente: " + nombreCompleto);
         return true;
     }
@@ -61,40 +77,119 @@ public class UsuarioService {
      * Retorna null si no existe.
      */
     public Usuario buscarPorDni(String dni) {
-        for (Usuario usuario : listaUsuarios) {
-            if (usuario.getDni().equals(dni)) {
-                return usuario;
-            }
+        bloqueo.readLock().lock();
+        try {
+            return almacen.buscar(dni);
+        } finally {
+            bloqueo.readLock().unlock();
         }
-        return null;
     }
     
     /**
      * Verifica si existe un usuario con el DNI dado.
      */
     public boolean existeUsuario(String dni) {
-        return buscarPorDni(dni) != null;
+        bloqueo.readLock().lock();
+        try {
+            return almacen.existe(dni);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Actualiza el saldo de un usuario y lo guarda en el almacén.
+     * Quien llama debe tener el bloqueo de la cuenta (ver TransaccionService).
+     */
+    public void actualizarSaldo(Usuario usuario, BigDecimal nuevoSaldo) {
+        bloqueo.readLock().lock();
+        try {
+            almacen.actualizarSaldo(usuario.getDni(), nuevoSaldo);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        usuario.setSaldo(nuevoSaldo);
+    }
+    
+    /**
+     * Retorna el saldo en céntimos de un usuario, o AlmacenCuentas.SIN_CUENTA si no existe.
+     * Quien llama debe tener el bloqueo de la cuenta si luego la va a actualizar.
+     */
+    public long obtenerSaldoCentimos(String dni) {
+        bloqueo.readLock().lock();
+        try {
+            return almacen.obtenerSaldoCentimos(dni);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Guarda el saldo en céntimos de un usuario sin crear objetos.
+     * Quien llama debe tener el bloqueo de la cuenta (ver TransaccionService).
+     */
+    public void actualizarSaldoCentimos(String dni, long saldoCentimos) {
+        bloqueo.readLock().lock();
+        try {
+            almacen.actualizarSaldoCentimos(dni, saldoCentimos);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
     }
     
     /**
      * Retorna la lista de todos los usuarios registrados.
      */
     public List<Usuario> obtenerTodosLosUsuarios() {
-        return new ArrayList<>(listaUsuarios);
+        bloqueo.readLock().lock();
+        try {
+            return almacen.listar();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Copia los saldos en céntimos de las primeras destino.length cuentas (orden de registro).
+     */
+    public void copiarSaldosCentimos(long[] destino) {
+        bloqueo.readLock().lock();
+        try {
+            almacen.copiarSaldosCentimos(destino);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Retorna los DNIs de las primeras cantidad cuentas (orden de registro).
+     */
+    public String[] copiarDnis(int cantidad) {
+        bloqueo.readLock().lock();
+        try {
+            return almacen.copiarDnis(cantidad);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
     }
     
     /**
      * Retorna la cantidad de usuarios registrados.
      */
     public int contarUsuarios() {
-        return listaUsuarios.size();
+        bloqueo.readLock().lock();
+        try {
+            return almacen.contar();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
     }
     
     /**
      * Muestra la lista de todos los usuarios en consola.
      */
     public void mostrarUsuarios() {
-        if (listaUsuarios.isEmpty()) {
+        if (contarUsuarios() == 0) {
             Validador.mostrarInfo("No hay usuarios registrados en el sistema.");
             return;
         }
@@ -103,13 +198,14 @@ public class UsuarioService {
         System.out.printf("%-12s %-30s %15s%n", "DNI", "NOMBRE", "SALDO");
         System.out.println("-".repeat(60));
         
-        for (Usuario usuario : listaUsuarios) {
+        List<Usuario> usuarios = obtenerTodosLosUsuarios();
+        for (Usuario usuario : usuarios) {
             System.out.printf("%-12s %-30s S/ %12.2f%n", 
                     usuario.getDni(), 
                     usuario.getNombreCompleto(),
                     usuario.getSaldo());
         }
         System.out.println("=".repeat(60));
-        System.out.println("Total de usuarios: " + listaUsuarios.size());
+        System.out.println("Total de usuarios: " + usuarios.size());
     }
 }
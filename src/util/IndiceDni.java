@@ -0,0 +1,59 @@
+package util;
+
+/**
+ * Índice DNI -> entero (por ejemplo, un número de cuenta) guardado en un
+ * arreglo primitivo con sondeo lineal, sin crear objetos por entrada.
+ * La capacidad se fija al crearlo (factor de carga máximo del 75%). Una vez
+ * lleno se puede consultar desde varios hilos sin bloqueos.
+ */
+public class IndiceDni {
+    
+    // Cada par ocupa dos posiciones: [DNI + 1 | valor]; una clave 0 indica ranura libre
+    private final int[] pares;
+    private final int mascara;
+    
+    public IndiceDni(int capacidad) {
+        if (capacidad < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa.");
+        }
+        int ranuras = Integer.highestOneBit(Math.max(2, capacidad + capacidad / 3 + 1) - 1) << 1;
+        this.pares = new int[ranuras * 2];
+        this.mascara = ranuras - 1;
+    }
+    
+    /**
+     * Agrega un DNI (como entero, ver Validador.dniANumero) que no esté en el índice.
+     */
+    public void agregar(int numeroDni, int valor) {
+        if (numeroDni < 0) {
+            throw new IllegalArgumentException("El DNI no es válido: " + numeroDni);
+        }
+        int posicion = Validador.mezclarDni(numeroDni) & mascara;
+        while (pares[posicion * 2] != 0) {
+            posicion = (posicion + 1) & mascara;
+        }
+        pares[posicion * 2] = numeroDni + 1;
+        pares[posicion * 2 + 1] = valor;
+    }
+    
+    /**
+     * Retorna el valor del DNI o -1 si no está en el índice.
+     */
+    public int buscar(int numeroDni) {
+        if (numeroDni < 0) {
+            return -1;
+        }
+        int clave = numeroDni + 1;
+        int posicion = Validador.mezclarDni(numeroDni) & mascara;
+        while (true) {
+            int actual = pares[posicion * 2];
+            if (actual == clave) {
+                return pares[posicion * 2 + 1];
+            }
+            if (actual == 0) {
+                return -1;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+    }
+}
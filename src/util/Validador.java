@@ -8,6 +8,13 @@ import java.math.BigDecimal;
  */
 public class Validador {
     
+    // Los montos y saldos se manejan en céntimos (long): como máximo 2 decimales
+    public static final int DECIMALES_MONTO = 2;
+    public static final BigDecimal MONTO_MAXIMO = BigDecimal.valueOf(Long.MAX_VALUE, DECIMALES_MONTO);
+    
+    // Permite silenciar los mensajes de consola (por ejemplo, en pruebas de carga)
+    private static volatile boolean mensajesHabilitados = true;
+    
     /**
      * Valida que el DNI tenga el formato correcto (8 dígitos numéricos).
      */
@@ -20,6 +27,36 @@ public class Validador {
         return dni.matches("\\d{8}");
     }
     
+    /**
+     * Convierte un DNI de 8 dígitos a entero sin crear objetos.
+     * Retorna -1 si el DNI no tiene el formato correcto.
+     */
+    public static int dniANumero(String dni) {
+        if (dni == null || dni.length() != 8) {
+            return -1;
+        }
+        
+        int numero = 0;
+        for (int i = 0; i < dni.length(); i++) {
+            char c = dni.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+    
+    /**
+     * Dispersa los bits de un DNI numérico para usarlo en tablas de
+     * direccionamiento abierto, de modo que DNIs consecutivos no queden juntos.
+     * Todas las tablas por DNI usan esta misma función.
+     */
+    public static int mezclarDni(int numeroDni) {
+        int h = numeroDni * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
     /**
      * Valida que el nombre no esté vacío y tenga un formato aceptable.
      */
@@ -34,13 +71,23 @@ public class Validador {
     }
     
     /**
-     * Valida que el monto sea mayor a cero.
+     * Valida que el monto sea mayor a cero, con máximo 2 decimales.
      */
     public static boolean esMontoValido(BigDecimal monto) {
         if (monto == null) {
             return false;
         }
-        return monto.compareTo(BigDecimal.ZERO) > 0;
+        return monto.compareTo(BigDecimal.ZERO) > 0 && esRepresentable(monto);
+    }
+    
+    /**
+     * Valida que un saldo no sea negativo y tenga máximo 2 decimales.
+     */
+    public static boolean esSaldoValido(BigDecimal saldo) {
+        if (saldo == null) {
+            return false;
+        }
+        return saldo.compareTo(BigDecimal.ZERO) >= 0 && esRepresentable(saldo);
     }
     
     /**
@@ -57,37 +104,91 @@ public class Validador {
      * Convierte un texto a BigDecimal de forma segura.
      * Retorna null si el texto no es un número válido.
      */
-    public static BigDecimal textoAMonto(String texto) {
+    public static BigDecimal textoANumero(String texto) {
         if (texto == null || texto.trim().isEmpty()) {
             return null;
         }
         
         try {
-            BigDecimal monto = new BigDecimal(texto.trim());
-            return monto;
+            return new BigDecimal(texto.trim());
         } catch (NumberFormatException e) {
             return null;
         }
     }
     
+    /**
+     * Convierte un texto a un monto en soles.
+     * Retorna null si no es un número válido o tiene más de 2 decimales.
+     */
+    public static BigDecimal textoAMonto(String texto) {
+        BigDecimal monto = textoANumero(texto);
+        if (monto == null || !esRepresentable(monto)) {
+            return null;
+        }
+        return monto;
+    }
+    
+    /**
+     * Convierte un monto en soles a céntimos.
+     * Lanza ArithmeticException si tiene fracciones de céntimo o no cabe en un long;
+     * los montos deben validarse antes con esMontoValido o esSaldoValido.
+     */
+    public static long montoACentimos(BigDecimal monto) {
+        try {
+            return monto.movePointRight(DECIMALES_MONTO).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("El monto no se puede expresar en céntimos: " + monto);
+        }
+    }
+    
+    /**
+     * Indica si el monto se puede expresar exactamente en céntimos (long).
+     */
+    private static boolean esRepresentable(BigDecimal monto) {
+        if (monto.scale() > DECIMALES_MONTO && monto.stripTrailingZeros().scale() > DECIMALES_MONTO) {
+            return false;
+        }
+        return monto.abs().compareTo(MONTO_MAXIMO) <= 0;
+    }
+    
+    /**
+     * Activa o desactiva los mensajes de consola de los servicios.
+     */
+    public static void setMensajesHabilitados(boolean habilitados) {
+        mensajesHabilitados = habilitados;
+    }
+    
+    /**
+     * Indica si los mensajes de consola están activos.
+     */
+    public static boolean mensajesHabilitados() {
+        return mensajesHabilitados;
+    }
+    
     /**
      * Muestra un mensaje de error formateado.
      */
     public static void mostrarError(String mensaje) {
-        System.out.println("\n[ERROR] " + mensaje);
+        if (mensajesHabilitados) {
+            System.out.println("\n[ERROR] " + mensaje);
+        }
     }
     
     /**
      * Muestra un mensaje de éxito formateado.
      */
     public static void mostrarExito(String mensaje) {
-        System.out.println("\n[ÉXITO] " + mensaje);
+        if (mensajesHabilitados) {
+            System.out.println("\n[ÉXITO] " + mensaje);
+        }
     }
     
     /**
      * Muestra un mensaje informativo formateado.
      */
     public static void mostrarInfo(String mensaje) {
-        System.out.println("\n[INFO] " + mensaje);
+        if (mensajesHabilitados) {
+            System.out.println("\n[INFO] " + mensaje);
+        }
     }
 }